@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmSearchIndex;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class FilmSearchBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+
+    @Param({"1000000"})
+    private int films;
+
+    private FilmSearchIndex index;
+    private String[] words;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void build() {
+        random = new SplittableRandom(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "слово" + Integer.toString(i, 36);
+        }
+        index = new FilmSearchIndex();
+        for (int id = 1; id <= films; id++) {
+            Film film = new Film(id, sentence(3), sentence(20), LocalDate.of(2000, 1, 1), 100);
+            index.reindex(id, () -> Optional.of(film));
+        }
+        System.out.println(index.getStats());
+    }
+
+    @Benchmark
+    public List<Integer> twoWords() {
+        return index.search(word() + " " + word(), 20);
+    }
+
+    @Benchmark
+    public List<Integer> typeahead() {
+        String word = word();
+        return index.search(word.substring(0, word.length() - 1), 20);
+    }
+
+    /**
+     * A prefix shared by the whole vocabulary: expansion stops after the first terms.
+     */
+    @Benchmark
+    public List<Integer> commonPrefix() {
+        return index.search("слов", 20);
+    }
+
+    @Benchmark
+    public void reindex() {
+        int id = random.nextInt(films) + 1;
+        Film film = new Film(id, sentence(3), sentence(20), LocalDate.of(2000, 1, 1), 100);
+        index.reindex(id, () -> Optional.of(film));
+    }
+
+    private String word() {
+        return words[(int) Math.sqrt(random.nextInt(VOCABULARY) * (double) VOCABULARY)];
+    }
+
+    private String sentence(int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sentence.append(word()).append(' ');
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.PackedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.PackedUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap per stored film and user in the default in-memory storage and in the packed
+ * one. Each storage is filled with {@code count} entities (the first argument, 10 000 000 by
+ * default) and the used heap after a full GC is compared with the heap before filling.
+ * Run it with a heap large enough for the object storage, e.g. {@code -Xmx4g} for 10M films.
+ */
+public final class FootprintReport {
+
+    private static final LocalDate EPOCH = LocalDate.of(1950, 1, 1);
+
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.printf("%,d entities, max heap %,d MB%n", count, Runtime.getRuntime().maxMemory() >> 20);
+        report("films, memory", count, InMemoryFilmStorage::new);
+        report("films, packed", count, PackedFilmStorage::new);
+        reportUsers("users, memory", count, InMemoryUserStorage::new);
+        reportUsers("users, packed", count, PackedUserStorage::new);
+    }
+
+    private static void report(String name, int count, Supplier<FilmStorage> factory) {
+        long before = usedHeap();
+        FilmStorage storage = factory.get();
+        for (int i = 0; i < count; i++) {
+            storage.create(new Film(null, "Фильм " + i, "Описание фильма номер " + i,
+                    EPOCH.plusDays(i % 25_000), 60 + i % 120));
+        }
+        print(name, count, usedHeap() - before, storage.count());
+    }
+
+    private static void reportUsers(String name, int count, Supplier<UserStorage> factory) {
+        long before = usedHeap();
+        UserStorage storage = factory.get();
+        for (int i = 0; i < count; i++) {
+            storage.create(new User(null, "user" + i + "@example.com", "user" + i, "Пользователь " + i,
+                    EPOCH.plusDays(i % 20_000)));
+        }
+        print(name, count, usedHeap() - before, storage.count());
+    }
+
+    private static void print(String name, int count, long bytes, int stored) {
+        System.out.printf("%-14s %,15d bytes  %6.1f bytes/entity  (%,d stored)%n",
+                name, bytes, (double) bytes / count, stored);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
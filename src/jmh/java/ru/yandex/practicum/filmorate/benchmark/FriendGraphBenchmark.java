@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.InMemoryFriendStorage;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common-friends latency on sorted int arrays versus boxed hash sets. Setup also prints
+ * the heap retained by each representation of the same graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class FriendGraphBenchmark {
+
+    private static final int FIRST_HUB = 1;
+    private static final int SECOND_HUB = 2;
+
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"20"})
+    private int averageFriends;
+
+    @Param({"5000"})
+    private int hubFriends;
+
+    private InMemoryFriendStorage friendStorage;
+    private Set<Integer> firstHubSet;
+    private Set<Integer> secondHubSet;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void build() {
+        random = new SplittableRandom(42);
+        long before = usedHeap();
+        friendStorage = new InMemoryFriendStorage();
+        long edges = (long) users * averageFriends / 2;
+        for (long i = 0; i < edges; i++) {
+            friendStorage.addFriend(random.nextInt(users) + 1, random.nextInt(users) + 1);
+        }
+        for (int i = 0; i < hubFriends; i++) {
+            friendStorage.addFriend(FIRST_HUB, random.nextInt(users) + 1);
+            friendStorage.addFriend(SECOND_HUB, random.nextInt(users / 10) + 1);
+        }
+        long primitive = usedHeap() - before;
+
+        before = usedHeap();
+        Map<Integer, Set<Integer>> boxed = new HashMap<>();
+        for (int userId = 1; userId <= users; userId++) {
+            Set<Integer> set = new HashSet<>();
+            for (int friendId : friendStorage.findFriends(userId)) {
+                set.add(friendId);
+            }
+            boxed.put(userId, set);
+        }
+        long boxedBytes = usedHeap() - before;
+        firstHubSet = boxed.get(FIRST_HUB);
+        secondHubSet = boxed.get(SECOND_HUB);
+        System.out.printf("%nГраф дружбы на %d пользователей: int[] %d байт/польз., Set<Integer> %d байт/польз.%n",
+                users, primitive / users, boxedBytes / users);
+    }
+
+    @Benchmark
+    public int[] commonFriendsMerge() {
+        return friendStorage.findCommonFriends(FIRST_HUB, SECOND_HUB);
+    }
+
+    @Benchmark
+    public Set<Integer> commonFriendsHashSet() {
+        Set<Integer> common = new HashSet<>();
+        for (Integer friendId : firstHubSet) {
+            if (secondHubSet.contains(friendId)) {
+                common.add(friendId);
+            }
+        }
+        return common;
+    }
+
+    @Benchmark
+    public boolean toggleFriend() {
+        int userId = random.nextInt(users) + 1;
+        int friendId = random.nextInt(users) + 1;
+        return friendStorage.addFriend(userId, friendId) || friendStorage.removeFriend(userId, friendId);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
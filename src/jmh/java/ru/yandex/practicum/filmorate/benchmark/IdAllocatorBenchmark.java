@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.IdAllocator;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdAllocatorBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private IdAllocator idAllocator;
+    private Map<Integer, Film> films;
+    private Film film;
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        idAllocator = new IdAllocator();
+        films = new HashMap<>();
+        film = new Film(null, "Фильм", "Описание", LocalDate.of(2000, 1, 1), 100);
+        for (int i = 0; i < size; i++) {
+            films.put(idAllocator.next(), film);
+        }
+    }
+
+    @Benchmark
+    public int next() {
+        return idAllocator.next();
+    }
+
+    @Benchmark
+    public Film insert() {
+        int id = idAllocator.next();
+        return films.put(id, film);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int nextContended() {
+        return idAllocator.next();
+    }
+}
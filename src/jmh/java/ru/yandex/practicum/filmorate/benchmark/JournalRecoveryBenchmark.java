@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FileBackedFilmStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class JournalRecoveryBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"0.5"})
+    private double snapshotShare;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        dir = Files.createTempDirectory("filmorate-recovery");
+        FileBackedFilmStorage storage = new FileBackedFilmStorage(dir, false);
+        storage.recover();
+        int snapshotted = (int) (size * snapshotShare);
+        for (int i = 0; i < size; i++) {
+            storage.create(new Film(null, "Фильм " + i, "Описание фильма " + i, LocalDate.of(2000, 1, 1), 100));
+            if (i == snapshotted) {
+                storage.snapshot();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int recover() throws IOException {
+        FileBackedFilmStorage storage = new FileBackedFilmStorage(dir, false);
+        storage.recover();
+        return storage.findAll().size();
+    }
+}
@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.netty.buffer.Unpooled;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test: every simulated client keeps one connection and sends the
+ * next request as soon as the previous answer arrives. Without {@code url=} it starts the
+ * application in-process, first on servlet Tomcat and then on reactive Netty, and compares
+ * throughput and latency percentiles of the two. Arguments are {@code key=value}:
+ * connections (10000), seconds (30), warmup (10), films (1000), path (/films?limit=20),
+ * url (test a running server instead), out (target/load-test.json).
+ * Every connection takes a file descriptor on both ends, so in-process runs at 10k
+ * connections need {@code ulimit -n} above 20k.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int connections = Integer.parseInt(options.getOrDefault("connections", "10000"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int films = Integer.parseInt(options.getOrDefault("films", "1000"));
+        String path = options.getOrDefault("path", "/films?limit=20");
+        String out = options.getOrDefault("out", "target/load-test.json");
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        if (options.containsKey("url")) {
+            results.add(run(options.get("url"), "external", connections, seconds, warmup, films, path));
+        } else {
+            for (WebApplicationType type : List.of(WebApplicationType.SERVLET, WebApplicationType.REACTIVE)) {
+                try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                        .web(type)
+                        .properties("server.port=0", "logging.level.root=WARN")
+                        .run()) {
+                    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                    results.add(run("http://localhost:" + port, type.name().toLowerCase(), connections, seconds,
+                            warmup, films, path));
+                }
+            }
+        }
+
+        System.out.printf("%-10s %11s %10s %8s %12s %9s %9s %9s%n",
+                "mode", "connections", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Map<String, Object> result : results) {
+            System.out.printf("%-10s %11d %10d %8d %12.1f %9.2f %9.2f %9.2f%n", result.get("mode"),
+                    result.get("connections"), result.get("requests"), result.get("errors"), result.get("throughput"),
+                    result.get("p50Ms"), result.get("p99Ms"), result.get("maxMs"));
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(out), results);
+    }
+
+    private static Map<String, Object> run(String baseUrl, String mode, int connections, int seconds, int warmup,
+                                           int films, String path) {
+        ConnectionProvider provider = ConnectionProvider.builder("load-test")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(Duration.ofMinutes(1))
+                .build();
+        try {
+            HttpClient client = HttpClient.create(provider)
+                    .baseUrl(baseUrl)
+                    .responseTimeout(Duration.ofSeconds(60));
+            prefill(client, films);
+
+            Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(2), 3);
+            AtomicLong errors = new AtomicLong();
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+            long deadline = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+            Flux.range(0, connections)
+                    .flatMap(i -> Mono.defer(() -> request(client, path, measureFrom, latencies, errors))
+                            .repeat(() -> System.nanoTime() < deadline), connections)
+                    .blockLast();
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("mode", mode);
+            result.put("connections", connections);
+            result.put("path", path);
+            result.put("seconds", seconds);
+            result.put("requests", latencies.getTotalCount());
+            result.put("errors", errors.get());
+            result.put("throughput", latencies.getTotalCount() / (double) seconds);
+            result.put("p50Ms", latencies.getValueAtPercentile(50) / 1e6);
+            result.put("p99Ms", latencies.getValueAtPercentile(99) / 1e6);
+            result.put("p999Ms", latencies.getValueAtPercentile(99.9) / 1e6);
+            result.put("maxMs", latencies.getMaxValue() / 1e6);
+            return result;
+        } finally {
+            provider.disposeLater().block();
+        }
+    }
+
+    private static Mono<Integer> request(HttpClient client, String path, long measureFrom, Histogram latencies,
+                                         AtomicLong errors) {
+        long start = System.nanoTime();
+        return client.get()
+                .uri(path)
+                .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code())
+                        .defaultIfEmpty(response.status().code()))
+                .doOnNext(status -> {
+                    if (start < measureFrom) {
+                        return;
+                    }
+                    if (status >= 400) {
+                        errors.incrementAndGet();
+                    } else {
+                        latencies.recordValue(System.nanoTime() - start);
+                    }
+                })
+                .onErrorResume(e -> {
+                    if (start >= measureFrom) {
+                        errors.incrementAndGet();
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private static void prefill(HttpClient client, int films) {
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < films; i++) {
+            batch.append("{\"name\":\"Фильм ").append(i)
+                    .append("\",\"description\":\"Описание\",\"releaseDate\":\"2000-01-01\",\"duration\":90}\n");
+        }
+        client.headers(headers -> headers.set("Content-Type", "application/x-ndjson"))
+                .post()
+                .uri("/films/batch")
+                .send(ByteBufFlux.fromInbound(Mono.just(Unpooled.wrappedBuffer(
+                        batch.toString().getBytes(StandardCharsets.UTF_8)))))
+                .responseSingle((response, body) -> body.asString().defaultIfEmpty(""))
+                .block(Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,191 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write latency with different logging setups. Client threads cycle through
+ * {@code POST /films}, {@code PUT /films} and {@code POST /users}; the node's console
+ * output goes to a file, as it would to a collector, and the report to stdout. Arguments are
+ * {@code key=value}: logging (off, sync, json or sampled), clients (4), seconds (20),
+ * warmup (10), log (target/logging-latency.log), out (target/logging-latency.json). Run
+ * each mode in its own JVM so that they start from the same JIT state.
+ * <ul>
+ *     <li>off: controller and service loggers at WARN, so only failures are logged;</li>
+ *     <li>sync: plain text written by the request thread, every success logged;</li>
+ *     <li>json: {@code json-logs} profile, every success logged;</li>
+ *     <li>sampled: {@code json-logs} profile with its default sampling.</li>
+ * </ul>
+ */
+public final class LoggingLatencyTest {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder().build();
+    private static final String FILM = "\"name\":\"Фильм\",\"description\":\"Описание\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":90}";
+
+    private LoggingLatencyTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        String mode = options.getOrDefault("logging", "sync");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "4"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        File logFile = new File(options.getOrDefault("log", "target/logging-latency.log"));
+        String out = options.getOrDefault("out", "target/logging-latency.json");
+
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0", "--filmorate.limits.enabled=false"));
+        switch (mode) {
+            case "off":
+                arguments.add("--logging.level.ru.yandex.practicum.filmorate=WARN");
+                break;
+            case "sync":
+                break;
+            case "json":
+                arguments.add("--spring.profiles.active=json-logs");
+                arguments.add("--filmorate.logging.sample.default=1");
+                break;
+            case "sampled":
+                arguments.add("--spring.profiles.active=json-logs");
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестный режим логирования: " + mode);
+        }
+
+        PrintStream report = System.out;
+        Map<String, Object> result;
+        try (PrintStream console = new PrintStream(new FileOutputStream(logFile), false, StandardCharsets.UTF_8)) {
+            System.setOut(console);
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                    .run(arguments.toArray(new String[0]))) {
+                String url = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+                for (int i = 0; i < 1000; i++) {
+                    send(post(url + "/films", "{" + FILM));
+                }
+                long logged = logFile.length();
+                result = run(url, clients, seconds, warmup);
+                result.put("logging", mode);
+                result.put("logBytesPerRequest", (logFile.length() - logged) / (double) (long) result.get("requests"));
+            }
+        } finally {
+            System.setOut(report);
+        }
+
+        report.printf("%-8s %10s %10s %10s %10s %12s%n", "logging", "req/s", "p50 ms", "p99 ms", "p999 ms", "log B/req");
+        report.printf("%-8s %10.0f %10.3f %10.3f %10.3f %12.1f%n", mode, result.get("requestsPerSecond"),
+                result.get("p50Ms"), result.get("p99Ms"), result.get("p999Ms"), result.get("logBytesPerRequest"));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(out), result);
+    }
+
+    private static Map<String, Object> run(String url, int clients, int seconds, int warmup)
+            throws InterruptedException {
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicLong users = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            threads.add(new Thread(() -> {
+                int i = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request;
+                    switch (i++ % 3) {
+                        case 0:
+                            request = post(url + "/films", "{" + FILM);
+                            break;
+                        case 1:
+                            request = HttpRequest.newBuilder(URI.create(url + "/films"))
+                                    .header("Content-Type", "application/json")
+                                    .timeout(Duration.ofSeconds(30))
+                                    .PUT(HttpRequest.BodyPublishers.ofString("{\"id\":"
+                                            + ThreadLocalRandom.current().nextInt(1, 1001) + "," + FILM))
+                                    .build();
+                            break;
+                        default:
+                            long user = users.incrementAndGet();
+                            request = post(url + "/users", "{\"email\":\"user" + user + "@example.com\",\"login\":\"user"
+                                    + user + "\",\"birthday\":\"1990-01-01\"}");
+                    }
+                    long start = System.nanoTime();
+                    int status = send(request);
+                    if (start < measureFrom) {
+                        continue;
+                    }
+                    if (status == 200) {
+                        latencies.recordValue(System.nanoTime() - start);
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("clients", clients);
+        result.put("seconds", seconds);
+        result.put("requests", latencies.getTotalCount());
+        result.put("requestsPerSecond", latencies.getTotalCount() / (double) seconds);
+        result.put("p50Ms", latencies.getValueAtPercentile(50) / 1e6);
+        result.put("p99Ms", latencies.getValueAtPercentile(99) / 1e6);
+        result.put("p999Ms", latencies.getValueAtPercentile(99.9) / 1e6);
+        result.put("errors", errors.get());
+        return result;
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static int send(HttpRequest request) {
+        try {
+            return CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
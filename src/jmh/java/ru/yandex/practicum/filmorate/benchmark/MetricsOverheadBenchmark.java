@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of timing a storage update with a meter registered once at startup, compared with
+ * the bare call and with looking the timer up by name and tags on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private static final int FILMS = 10_000;
+
+    private PrometheusMeterRegistry registry;
+    private Timer timer;
+    private Counter counter;
+    private InMemoryFilmStorage storage;
+    private Film film;
+
+    @Setup
+    public void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        timer = Timer.builder("filmorate.operation").tag("operation", "film.update").register(registry);
+        counter = registry.counter("filmorate.validation.failures", "entity", "film");
+        storage = new InMemoryFilmStorage();
+        for (int i = 0; i < FILMS; i++) {
+            storage.create(new Film(null, "Фильм " + i, "Описание", LocalDate.of(2000, 1, 1), 100));
+        }
+        film = new Film(FILMS / 2, "Фильм", "Описание", LocalDate.of(2000, 1, 1), 100);
+    }
+
+    @Benchmark
+    public Optional<Film> bare() {
+        return storage.update(film);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Film> bareContended() {
+        return storage.update(film);
+    }
+
+    @Benchmark
+    public long clockOnly() {
+        long start = System.nanoTime();
+        return System.nanoTime() - start;
+    }
+
+    @Benchmark
+    public Optional<Film> timed() {
+        long start = System.nanoTime();
+        try {
+            return storage.update(film);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Film> timedContended() {
+        return timed();
+    }
+
+    @Benchmark
+    public Optional<Film> timedWithTagLookup() {
+        long start = System.nanoTime();
+        try {
+            return storage.update(film);
+        } finally {
+            registry.timer("filmorate.operation", "operation", "film.update")
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Benchmark
+    public void counterIncrement() {
+        counter.increment();
+    }
+}
@@ -0,0 +1,198 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read latency while writers flood the node, with the write limits off and on. Writer
+ * threads post films as fast as they can, spread over {@code keys} API keys; reader threads
+ * alternate {@code GET /films?limit=20} and {@code GET /users?limit=20}. Arguments are
+ * {@code key=value}: writers (32), keys (1), readers (4), seconds (20), warmup (10),
+ * limits (false, true or both; the second run of both profits from the first one's JIT
+ * warm-up, so compare separate runs), out (target/overload-test.json).
+ */
+public final class OverloadTest {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder().build();
+
+    private OverloadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int writers = Integer.parseInt(options.getOrDefault("writers", "32"));
+        int keys = Integer.parseInt(options.getOrDefault("keys", "1"));
+        int readers = Integer.parseInt(options.getOrDefault("readers", "4"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        String out = options.getOrDefault("out", "target/overload-test.json");
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        String mode = options.getOrDefault("limits", "both");
+        List<Boolean> modes = "both".equals(mode) ? List.of(false, true) : List.of(Boolean.parseBoolean(mode));
+        for (boolean limits : modes) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                    .properties("server.port=0", "logging.level.root=WARN")
+                    .run("--filmorate.limits.enabled=" + limits, "--filmorate.limits.api-keys=" + apiKeys(keys))) {
+                String url = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+                prefill(url);
+                Map<String, Object> result = run(url, writers, keys, readers, seconds, warmup);
+                result.put("limits", limits);
+                results.add(result);
+            }
+        }
+
+        System.out.printf("%-7s %8s %10s %10s %10s %10s %10s %10s%n",
+                "limits", "reads/s", "read p50", "read p99", "read p999", "writes/s", "429/s", "503/s");
+        for (Map<String, Object> result : results) {
+            System.out.printf("%-7s %8.0f %10.2f %10.2f %10.2f %10.0f %10.0f %10.0f%n", result.get("limits"),
+                    result.get("readsPerSecond"), result.get("readP50Ms"), result.get("readP99Ms"),
+                    result.get("readP999Ms"), result.get("writesPerSecond"), result.get("rejected429PerSecond"),
+                    result.get("rejected503PerSecond"));
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(out), results);
+    }
+
+    private static String apiKeys(int keys) {
+        StringBuilder list = new StringBuilder();
+        for (int k = 0; k < keys; k++) {
+            list.append(k == 0 ? "" : ",").append("importer-").append(k);
+        }
+        return list.toString();
+    }
+
+    private static Map<String, Object> run(String url, int writers, int keys, int readers, int seconds, int warmup)
+            throws InterruptedException {
+        Histogram reads = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicLong written = new AtomicLong();
+        AtomicLong tooMany = new AtomicLong();
+        AtomicLong unavailable = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            String key = "importer-" + (w % keys);
+            threads.add(new Thread(() -> {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/films"))
+                        .header("Content-Type", "application/json")
+                        .header("X-Api-Key", key)
+                        .timeout(Duration.ofSeconds(30))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Фильм\",\"description\":\"Описание\","
+                                + "\"releaseDate\":\"2000-01-01\",\"duration\":90}"))
+                        .build();
+                while (System.nanoTime() < deadline) {
+                    int status = send(request);
+                    if (System.nanoTime() < measureFrom) {
+                        continue;
+                    }
+                    if (status == 200) {
+                        written.incrementAndGet();
+                    } else if (status == 429) {
+                        tooMany.incrementAndGet();
+                    } else if (status == 503) {
+                        unavailable.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                List<HttpRequest> requests = List.of(
+                        HttpRequest.newBuilder(URI.create(url + "/films?limit=20")).timeout(Duration.ofSeconds(30)).build(),
+                        HttpRequest.newBuilder(URI.create(url + "/users?limit=20")).timeout(Duration.ofSeconds(30)).build());
+                int i = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    int status = send(requests.get(i++ & 1));
+                    if (start < measureFrom) {
+                        continue;
+                    }
+                    if (status == 200) {
+                        reads.recordValue(System.nanoTime() - start);
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("writers", writers);
+        result.put("keys", keys);
+        result.put("readers", readers);
+        result.put("seconds", seconds);
+        result.put("readsPerSecond", reads.getTotalCount() / (double) seconds);
+        result.put("readP50Ms", reads.getValueAtPercentile(50) / 1e6);
+        result.put("readP99Ms", reads.getValueAtPercentile(99) / 1e6);
+        result.put("readP999Ms", reads.getValueAtPercentile(99.9) / 1e6);
+        result.put("writesPerSecond", written.get() / (double) seconds);
+        result.put("rejected429PerSecond", tooMany.get() / (double) seconds);
+        result.put("rejected503PerSecond", unavailable.get() / (double) seconds);
+        result.put("errors", errors.get());
+        return result;
+    }
+
+    private static int send(HttpRequest request) {
+        try {
+            return CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static void prefill(String url) throws IOException, InterruptedException {
+        StringBuilder films = new StringBuilder("[");
+        StringBuilder users = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            String separator = i == 0 ? "" : ",";
+            films.append(separator).append("{\"name\":\"Фильм ").append(i)
+                    .append("\",\"description\":\"Описание\",\"releaseDate\":\"2000-01-01\",\"duration\":90}");
+            users.append(separator).append("{\"email\":\"user").append(i).append("@example.com\",\"login\":\"user")
+                    .append(i).append("\",\"birthday\":\"1990-01-01\"}");
+        }
+        for (String[] batch : List.of(new String[]{"/films/batch", films + "]"}, new String[]{"/users/batch", users + "]"})) {
+            CLIENT.send(HttpRequest.newBuilder(URI.create(url + batch[0]))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(batch[1]))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PopularFilmsBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int COUNT = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    private int films;
+
+    private InMemoryLikeStorage likeStorage;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void like() {
+        likeStorage = new InMemoryLikeStorage();
+        random = new SplittableRandom(42);
+        for (int filmId = 1; filmId <= films; filmId++) {
+            int likes = random.nextInt(8);
+            for (int i = 0; i < likes; i++) {
+                likeStorage.addLike(filmId, random.nextInt(USERS));
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean toggleLike() {
+        int filmId = random.nextInt(films) + 1;
+        int userId = random.nextInt(USERS);
+        return likeStorage.addLike(filmId, userId) || likeStorage.removeLike(filmId, userId);
+    }
+
+    @Benchmark
+    public List<Integer> popularFromRanking() {
+        return likeStorage.findPopular(COUNT);
+    }
+
+    @Benchmark
+    public List<Integer> popularBySorting() {
+        return IntStream.rangeClosed(1, films).boxed()
+                .sorted((a, b) -> Integer.compare(likeStorage.countLikes(b), likeStorage.countLikes(a)))
+                .limit(COUNT)
+                .collect(Collectors.toList());
+    }
+}
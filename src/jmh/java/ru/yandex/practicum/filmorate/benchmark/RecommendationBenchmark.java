@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.FilmRecommendationIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Users fall into taste groups, each liking mostly films from its own pool plus a few
+ * random ones, so that the index has real neighbours to find.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RecommendationBenchmark {
+
+    private static final int FILMS = 100_000;
+    private static final int GROUP_SIZE = 100;
+    private static final int POOL_SIZE = 60;
+    private static final int GROUP_LIKES = 20;
+    private static final int RANDOM_LIKES = 2;
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    private FilmRecommendationIndex index;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        index = new FilmRecommendationIndex();
+        Random random = new Random(42);
+        for (int user = 1; user <= users; user++) {
+            int poolStart = random.nextInt(FILMS - POOL_SIZE) + 1;
+            Random group = new Random(user / GROUP_SIZE);
+            int groupPoolStart = group.nextInt(FILMS - POOL_SIZE) + 1;
+            for (int i = 0; i < GROUP_LIKES; i++) {
+                index.addLike(user, groupPoolStart + random.nextInt(POOL_SIZE));
+            }
+            for (int i = 0; i < RANDOM_LIKES; i++) {
+                index.addLike(user, poolStart + random.nextInt(FILMS - poolStart));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Integer> recommend() {
+        return index.recommend(ThreadLocalRandom.current().nextInt(users) + 1, 10);
+    }
+
+    @Benchmark
+    public void likeAndUnlike() {
+        int user = ThreadLocalRandom.current().nextInt(users) + 1;
+        int film = ThreadLocalRandom.current().nextInt(FILMS) + 1;
+        index.addLike(user, film);
+        index.removeLike(user, film);
+    }
+}
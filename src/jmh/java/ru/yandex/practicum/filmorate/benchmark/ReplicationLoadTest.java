@@ -0,0 +1,227 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.replication.Replication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes films to the leader from several threads and reads each one back from a random
+ * follower with the write's log position, which measures how soon a write is visible on
+ * the followers. A sampler records the followers' lag in events. Without {@code leader=}
+ * it starts a leader and {@code followers} followers in this JVM, all sharing its CPUs.
+ * Arguments are {@code key=value}: followers (2), writers (4), seconds (20), web (servlet or
+ * reactive), leader and replicas (comma-separated URLs of running nodes instead of starting
+ * them), out (target/replication-test.json).
+ */
+public final class ReplicationLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    private ReplicationLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int writers = Integer.parseInt(options.getOrDefault("writers", "4"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        String out = options.getOrDefault("out", "target/replication-test.json");
+
+        List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+        try {
+            String leader = options.get("leader");
+            List<String> replicas = new ArrayList<>();
+            String web = "spring.main.web-application-type=" + options.getOrDefault("web", "servlet");
+            if (leader == null) {
+                nodes.add(start(web, "filmorate.replication.role=leader"));
+                leader = url(nodes.get(0));
+                int followers = Integer.parseInt(options.getOrDefault("followers", "2"));
+                for (int i = 0; i < followers; i++) {
+                    nodes.add(start(web, "filmorate.replication.role=follower", "filmorate.replication.leader-url=" + leader));
+                    replicas.add(url(nodes.get(nodes.size() - 1)));
+                }
+            } else {
+                replicas.addAll(List.of(options.get("replicas").split(",")));
+            }
+            for (String replica : replicas) {
+                awaitCaughtUp(replica, TimeUnit.SECONDS.toNanos(30));
+            }
+            Map<String, Object> result = run(leader, replicas, writers, seconds);
+            MAPPER.enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(out), result);
+            result.forEach((key, value) -> System.out.printf("%-28s %s%n", key, value));
+        } finally {
+            for (int i = nodes.size() - 1; i >= 0; i--) {
+                nodes.get(i).close();
+            }
+        }
+    }
+
+    private static Map<String, Object> run(String leader, List<String> replicas, int writers, int seconds)
+            throws Exception {
+        Histogram writeLatency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        Histogram visibleAfter = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicLong redirected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        Histogram lagEvents = new ConcurrentHistogram(3);
+        long appliedBefore = applied(replicas);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        Thread sampler = new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                for (String replica : replicas) {
+                    try {
+                        lagEvents.recordValue(status(replica).get("lagEvents").asLong());
+                    } catch (IOException | InterruptedException | RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+                sleep(100);
+            }
+        });
+        sampler.start();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            Thread writer = new Thread(() -> {
+                int i = 0;
+                while (System.nanoTime() < deadline) {
+                    try {
+                        long begin = System.nanoTime();
+                        HttpResponse<String> created = send(HttpRequest.newBuilder(URI.create(leader + "/films"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Фильм " + i++
+                                        + "\",\"description\":\"Описание\",\"releaseDate\":\"2000-01-01\",\"duration\":90}")));
+                        long written = System.nanoTime();
+                        if (created.statusCode() != 200) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        writeLatency.recordValue(written - begin);
+                        String replica = replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+                        HttpResponse<String> read = send(HttpRequest.newBuilder(URI.create(replica + "/films/popular?count=1"))
+                                .header(Replication.MIN_SEQUENCE_HEADER,
+                                        created.headers().firstValue(Replication.SEQUENCE_HEADER).orElse("0")));
+                        if (read.statusCode() == 307) {
+                            redirected.incrementAndGet();
+                        } else if (read.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else {
+                            visibleAfter.recordValue(System.nanoTime() - written);
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            writer.start();
+            threads.add(writer);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        sampler.join();
+        long stopped = System.nanoTime();
+        for (String replica : replicas) {
+            awaitCaughtUp(replica, TimeUnit.SECONDS.toNanos(60));
+        }
+        long caughtUp = System.nanoTime();
+        double elapsed = (stopped - start) / 1e9;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("followers", replicas.size());
+        result.put("writers", writers);
+        result.put("seconds", seconds);
+        result.put("writes", writeLatency.getTotalCount());
+        result.put("errors", errors.get());
+        result.put("writesPerSecond", Math.round(writeLatency.getTotalCount() / elapsed));
+        result.put("appliedPerSecond", Math.round((applied(replicas) - appliedBefore) / elapsed));
+        result.put("writeP50Ms", writeLatency.getValueAtPercentile(50) / 1e6);
+        result.put("writeP99Ms", writeLatency.getValueAtPercentile(99) / 1e6);
+        result.put("visibleOnFollowerP50Ms", visibleAfter.getValueAtPercentile(50) / 1e6);
+        result.put("visibleOnFollowerP99Ms", visibleAfter.getValueAtPercentile(99) / 1e6);
+        result.put("visibleOnFollowerMaxMs", visibleAfter.getMaxValue() / 1e6);
+        result.put("readsRedirectedToLeader", redirected.get());
+        result.put("lagEventsP50", lagEvents.getValueAtPercentile(50));
+        result.put("lagEventsMax", lagEvents.getMaxValue());
+        result.put("catchUpAfterStopMs", (caughtUp - stopped) / 1e6);
+        return result;
+    }
+
+    private static ConfigurableApplicationContext start(String... properties) {
+        List<String> all = new ArrayList<>(List.of("server.port=0", "logging.level.root=WARN"));
+        all.addAll(List.of(properties));
+        // Arguments rather than default properties, which application.properties would override.
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .properties(all.toArray(new String[0]))
+                .run("--filmorate.limits.enabled=false");
+    }
+
+    private static String url(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static long applied(List<String> replicas) throws IOException, InterruptedException {
+        long applied = 0;
+        for (String replica : replicas) {
+            applied += status(replica).get("applied").asLong();
+        }
+        return applied;
+    }
+
+    private static void awaitCaughtUp(String replica, long timeoutNanos) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (System.nanoTime() < deadline) {
+            JsonNode status = status(replica);
+            if (status.get("snapshots").asLong() > 0 && status.get("lagEvents").asLong() == 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Реплика " + replica + " не догнала лидера");
+    }
+
+    private static JsonNode status(String replica) throws IOException, InterruptedException {
+        return MAPPER.readTree(send(HttpRequest.newBuilder(URI.create(replica + "/replication/status"))).body());
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return CLIENT.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
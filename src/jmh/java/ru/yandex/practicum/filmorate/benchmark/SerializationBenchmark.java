@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON of large film lists: Jackson configured the way Spring Boot configures it, and
+ * Gson with the LocalDate serializer the functional tests use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final TypeReference<List<Film>> FILMS = new TypeReference<>() {
+    };
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private Gson gson;
+    private List<Film> films;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT))
+                .build();
+        gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, (JsonSerializer<LocalDate>) (date, type, context) ->
+                        new JsonPrimitive(date.format(DateTimeFormatter.ISO_LOCAL_DATE)))
+                .create();
+        films = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            films.add(new Film(i + 1, "Фильм " + i, "Описание фильма номер " + i,
+                    LocalDate.of(2000, 1, 1).plusDays(i % 5000), 90 + i % 60));
+        }
+        json = objectMapper.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    public byte[] jacksonWrite() throws IOException {
+        return objectMapper.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    public List<Film> jacksonRead() throws IOException {
+        return objectMapper.readValue(json, FILMS);
+    }
+
+    @Benchmark
+    public String gsonWrite() {
+        return gson.toJson(films);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.storage.FilmStatsIndex;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /films/stats} from the incrementally kept index against computing the same
+ * year counts and duration percentiles with a scan over all films, and the cost the index
+ * adds to a write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private final List<Film> films = new ArrayList<>();
+    private FilmStatsIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        Random random = new Random(42);
+        index = new FilmStatsIndex();
+        for (int id = 1; id <= size; id++) {
+            Film film = new Film(id, "Фильм", "Описание",
+                    LocalDate.of(1950 + random.nextInt(75), 1, 1), 60 + random.nextInt(120));
+            films.add(film);
+            index.reindex(id, () -> Optional.of(film));
+        }
+    }
+
+    @Benchmark
+    public FilmStats sketch() {
+        return index.getStats();
+    }
+
+    @Benchmark
+    public Object[] scan() {
+        Map<Integer, Long> byYear = new TreeMap<>();
+        int[] durations = new int[films.size()];
+        int i = 0;
+        for (Film film : films) {
+            byYear.merge(film.getReleaseDate().getYear(), 1L, Long::sum);
+            durations[i++] = film.getDuration();
+        }
+        Arrays.sort(durations);
+        return new Object[]{byYear, durations[durations.length / 2], durations[durations.length * 99 / 100]};
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void update() {
+        Film film = films.get(next++ % size);
+        film.setDuration(film.getDuration() ^ 1);
+        index.reindex(film.getId(), () -> Optional.of(film));
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageBenchmark {
+
+    private static final int PAGE = 100;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private InMemoryFilmStorage storage;
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        storage = new InMemoryFilmStorage();
+        for (int i = 0; i < size; i++) {
+            storage.create(film(null, i));
+        }
+    }
+
+    @Benchmark
+    public Film insert() {
+        return storage.create(film(null, 0));
+    }
+
+    @Benchmark
+    public Optional<Film> update() {
+        return storage.update(film(randomId(), 1));
+    }
+
+    @Benchmark
+    public Optional<Film> findById() {
+        return storage.findById(randomId());
+    }
+
+    @Benchmark
+    public void listPage(Blackhole blackhole) {
+        Iterator<Film> films = storage.findAfter(randomId()).iterator();
+        for (int i = 0; i < PAGE && films.hasNext(); i++) {
+            blackhole.consume(films.next());
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void listAll(Blackhole blackhole) {
+        for (Film film : storage.findAll()) {
+            blackhole.consume(film);
+        }
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(size) + 1;
+    }
+
+    private static Film film(Integer id, int i) {
+        return new Film(id, "Фильм " + i, "Описание фильма " + i, LocalDate.of(2000, 1, 1).plusDays(i % 5000), 90);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.storage.file.FilmCodec;
+import ru.yandex.practicum.filmorate.transfer.BinaryDecoder;
+import ru.yandex.practicum.filmorate.transfer.BinaryEncoder;
+import ru.yandex.practicum.filmorate.transfer.CatalogTransfer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Export and import throughput. Arguments are {@code key=value}: mode (codec or node),
+ * records (10000000), file (target/transfer.bin).
+ * <ul>
+ *     <li>codec: films generated on the fly are encoded into the file and decoded back, so
+ *     nothing but the transfer itself is kept in memory; run with a small {@code -Xmx} to
+ *     see that the heap does not grow with the file;</li>
+ *     <li>node: the file is imported into a node without a web server, which stores and
+ *     indexes every film, then exported again.</li>
+ * </ul>
+ */
+public final class TransferThroughputTest {
+
+    private TransferThroughputTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        String mode = options.getOrDefault("mode", "codec");
+        int records = Integer.parseInt(options.getOrDefault("records", "10000000"));
+        Path file = Path.of(options.getOrDefault("file", "target/transfer.bin"));
+
+        long start = System.nanoTime();
+        long written = write(file, new BinaryEncoder<>(CatalogTransfer.FILMS, new FilmCodec(), films(records)));
+        report("export (codec)", records, file, start);
+
+        if ("codec".equals(mode)) {
+            start = System.nanoTime();
+            long[] read = new long[1];
+            BinaryDecoder<Film> decoder = new BinaryDecoder<>(CatalogTransfer.FILMS, new FilmCodec(),
+                    film -> read[0]++);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(CatalogTransfer.CHUNK_SIZE);
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    decoder.feed(buffer);
+                    buffer.clear();
+                }
+            }
+            decoder.finish();
+            report("import (codec)", read[0], file, start);
+        } else {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--logging.level.ru.yandex.practicum.filmorate=WARN")) {
+                CatalogTransfer transfer = context.getBean(CatalogTransfer.class);
+                start = System.nanoTime();
+                ImportResult result;
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    result = CatalogTransfer.read(channel, transfer.importFilms());
+                }
+                report("import (node)", result.getImported(), file, start);
+
+                Path copy = file.resolveSibling("transfer-copy.bin");
+                start = System.nanoTime();
+                long exported = write(copy, transfer.exportFilms());
+                report("export (node)", exported, copy, start);
+            }
+        }
+        if (written != records) {
+            throw new IllegalStateException("Записано " + written + " из " + records);
+        }
+    }
+
+    private static long write(Path file, BinaryEncoder<Film> encoder) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return CatalogTransfer.write(encoder, channel);
+        }
+    }
+
+    private static Iterator<Film> films(int count) {
+        return new Iterator<>() {
+            private int id;
+
+            @Override
+            public boolean hasNext() {
+                return id < count;
+            }
+
+            @Override
+            public Film next() {
+                id++;
+                Film film = new Film(id, "Фильм " + id, "Описание фильма номер " + id,
+                        LocalDate.of(1950 + id % 75, 1 + id % 12, 1), 60 + id % 120);
+                film.setVersion(1L);
+                return film;
+            }
+        };
+    }
+
+    private static void report(String what, long records, Path file, long start) throws IOException {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = Files.size(file);
+        long heapPeak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPeak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%-15s %,12d records %8.1f s %,12.0f records/s %8.1f MB/s  file %,d MB  heap peak %,d MB%n",
+                what, records, seconds, records / seconds, bytes / seconds / 1e6, bytes >> 20, heapPeak >> 20);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private final FilmValidator filmValidator = new FilmValidator();
+    private final UserValidator userValidator = new UserValidator();
+    private Film validFilm;
+    private Film invalidFilm;
+    private User validUser;
+    private User invalidUser;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        validFilm = new Film(null, "Фильм", "Описание", LocalDate.of(2000, 1, 1), 90);
+        invalidFilm = new Film(null, " ", "x".repeat(201), null, 0);
+        validUser = new User(null, "user@example.com", "login", "Имя", LocalDate.of(1990, 1, 1));
+        invalidUser = new User(null, "не email", "с пробелом", null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Film>> validFilm() {
+        return validator.validate(validFilm);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Film>> invalidFilm() {
+        return validator.validate(invalidFilm);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> validUser() {
+        return validator.validate(validUser);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> invalidUser() {
+        return validator.validate(invalidUser);
+    }
+
+    @Benchmark
+    public String precompiledValidFilm() {
+        return filmValidator.validate(validFilm);
+    }
+
+    @Benchmark
+    public List<String> precompiledInvalidFilm() {
+        return filmValidator.validateAll(invalidFilm);
+    }
+
+    @Benchmark
+    public String precompiledValidUser() {
+        return userValidator.validate(validUser);
+    }
+
+    @Benchmark
+    public List<String> precompiledInvalidUser() {
+        return userValidator.validateAll(invalidUser);
+    }
+}
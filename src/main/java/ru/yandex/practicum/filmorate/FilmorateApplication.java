@@ -2,11 +2,17 @@ package ru.yandex.practicum.filmorate;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.yandex.practicum.filmorate.transfer.CatalogCli;
 
 @SpringBootApplication
+@EnableScheduling
 public class FilmorateApplication {
 
 	public static void main(String[] args) {
+		if (CatalogCli.isCommand(args)) {
+			System.exit(CatalogCli.run(FilmorateApplication.class, args));
+		}
 		SpringApplication.run(FilmorateApplication.class, args);
 	}
 
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Batches {
+
+    private Batches() {
+    }
+
+    static void checkSize(int size, int maxSize) throws ValidationException {
+        if (size > maxSize) {
+            throw new ValidationException("Размер пакета не может превышать " + maxSize);
+        }
+    }
+
+    static <T> List<T> readNdjson(ObjectMapper objectMapper, InputStream body, Class<T> type, int maxSize)
+            throws ValidationException {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                items.add(iterator.nextValue());
+                checkSize(items.size(), maxSize);
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Некорректная строка NDJSON в пакете: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return items;
+    }
+}
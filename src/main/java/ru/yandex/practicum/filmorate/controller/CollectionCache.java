@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of a whole collection, kept until the collection version changes.
+ * The version has to be read before the contents, so a body is never older than its tag.
+ */
+final class CollectionCache {
+
+    private final String name;
+    private volatile Snapshot snapshot;
+
+    CollectionCache(String name) {
+        this.name = name;
+    }
+
+    String etag(long version, String variant) {
+        return "\"" + name + "-" + variant + "-" + version + "\"";
+    }
+
+    /**
+     * The format plus every query parameter that narrows the collection, so a page or a range
+     * never shares its tag with the whole collection or with another page.
+     */
+    static String variant(String format, Integer limit, Integer after, LocalDate from, LocalDate to) {
+        StringBuilder variant = new StringBuilder(format);
+        appendIfPresent(variant, "limit", limit);
+        appendIfPresent(variant, "after", after);
+        appendIfPresent(variant, "from", from);
+        appendIfPresent(variant, "to", to);
+        return variant.toString();
+    }
+
+    private static void appendIfPresent(StringBuilder variant, String name, Object value) {
+        if (value != null) {
+            variant.append(';').append(name).append('=').append(value);
+        }
+    }
+
+    byte[] json(ObjectMapper objectMapper, long version, Supplier<?> contents) throws JsonProcessingException {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version) {
+            return current.bytes;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.version != version) {
+                current = new Snapshot(version, objectMapper.writeValueAsBytes(contents.get()));
+                snapshot = current;
+            }
+            return current.bytes;
+        }
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final byte[] bytes;
+
+        private Snapshot(long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import ru.yandex.practicum.filmorate.event.ChangeEventLog;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-Sent Events over {@link ChangeEventLog}, shared by the servlet and reactive stacks.
+ * Each subscriber pulls from the log only when the connection asks for more, and wake-ups
+ * that arrive meanwhile collapse into one, so a slow client costs nothing but its position.
+ * A client that fell out of the buffer gets a {@code reset} event with the number of events
+ * it missed and should reload the collections.
+ */
+final class EventStream {
+
+    private static final int BATCH = 256;
+    private static final long HEARTBEAT = -1;
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
+    private EventStream() {
+    }
+
+    /**
+     * Events after {@code after}, or after the resume id sent by the browser as
+     * {@code Last-Event-ID}; only new events when neither is given.
+     */
+    static Flux<ServerSentEvent<Object>> subscribe(ChangeEventLog log, Long after, String lastEventId) {
+        long start = after != null ? after : lastEventId != null ? parseId(lastEventId) : log.lastSequence();
+        return Flux.defer(() -> {
+            long[] cursor = {start};
+            return Flux.merge(log.published(), Flux.interval(HEARTBEAT_INTERVAL).map(tick -> HEARTBEAT))
+                    .onBackpressureLatest()
+                    .startWith(0L)
+                    .concatMap(signal -> drain(log, cursor, signal == HEARTBEAT), 1);
+        });
+    }
+
+    private static Flux<ServerSentEvent<Object>> drain(ChangeEventLog log, long[] cursor, boolean heartbeat) {
+        List<ChangeEvent> events = log.readAfter(cursor[0], BATCH);
+        if (events.isEmpty()) {
+            return heartbeat ? Flux.just(ServerSentEvent.builder().comment("heartbeat").build()) : Flux.empty();
+        }
+        List<ServerSentEvent<Object>> batch = new ArrayList<>(events.size() + 1);
+        long missed = events.get(0).getSequence() - cursor[0] - 1;
+        if (missed > 0) {
+            batch.add(ServerSentEvent.builder()
+                    .event("reset")
+                    .data((Object) Map.of("missed", missed))
+                    .build());
+        }
+        for (ChangeEvent event : events) {
+            batch.add(ServerSentEvent.builder(event.getData())
+                    .id(String.valueOf(event.getSequence()))
+                    .event(event.getType())
+                    .build());
+        }
+        cursor[0] = events.get(events.size() - 1).getSequence();
+        Flux<ServerSentEvent<Object>> sent = Flux.fromIterable(batch);
+        return events.size() < BATCH ? sent : sent.concatWith(Flux.defer(() -> drain(log, cursor, false)));
+    }
+
+    private static long parseId(String lastEventId) {
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
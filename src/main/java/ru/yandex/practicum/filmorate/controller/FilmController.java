@@ -1,98 +1,205 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.validation.BindingResult;
-import org.springframework.validation.Errors;
-import org.springframework.validation.FieldError;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.logging.RequestLog;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.ItemError;
+import ru.yandex.practicum.filmorate.model.SearchIndexStats;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.transfer.BinaryEncoder;
+import ru.yandex.practicum.filmorate.transfer.CatalogTransfer;
 
-import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
 @RequestMapping("/films")
 public class FilmController {
 
-    private Map<Integer, Film> films = new HashMap<>();
+    private final FilmStorage filmStorage;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final FilmorateMetrics metrics;
+    private final RequestLog requestLog;
+    private final CatalogTransfer catalogTransfer;
+    private final CollectionCache cache = new CollectionCache("films");
+    @Value("${filmorate.batch.max-size:10000}")
+    private int maxBatchSize;
 
     @GetMapping
-    public List<Film> getAll() {
-        List<Film> filmsList = new ArrayList<>();
-        for (var film : films.values()) {
-            filmsList.add(film);
+    public ResponseEntity<?> getAll(@RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) Integer after,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    WebRequest request) throws ValidationException, JsonProcessingException {
+        long start = System.nanoTime();
+        try {
+            Paging.checkLimit(limit);
+            long version = filmStorage.version();
+            String etag = cache.etag(version, CollectionCache.variant("json", limit, after, from, to));
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            if (limit == null && after == null && from == null && to == null) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(cache.json(objectMapper, version, filmStorage::findAll));
+            }
+            return ResponseEntity.ok(Paging.toList(filmService.findFilms(after, from, to), limit));
+        } finally {
+            metrics.filmGetAll().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        return filmsList;
     }
 
-    @PostMapping
-    public Film create(@RequestBody @Valid Film film, BindingResult result, Errors fieldError) throws ValidationException {
-        log.info("Добавляем фильм...");
-        if (fieldError.hasErrors()) {
-            List<FieldError> errors = result.getFieldErrors();
-            for (FieldError error : errors) {
-                log.warn(error.getDefaultMessage());
-                throw new ValidationException(error.getDefaultMessage());
-            }
-        }
-        if (film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
-            log.warn("Ошибка при добавлении фильма: неверная дата релиза");
-            throw new ValidationException("Дата релиза — не раньше 28 декабря 1895 года");
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilms(@RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) Integer after,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                             WebRequest request) throws ValidationException {
+        Paging.checkLimit(limit);
+        String etag = cache.etag(filmStorage.version(), CollectionCache.variant("ndjson", limit, after, from, to));
+        if (request.checkNotModified(etag)) {
+            return null;
         }
-        if (film.getDuration() <= 0) {
-            log.warn("Ошибка при добавлении фильма: нулевая продолжительность");
-            throw new ValidationException("Продолжительность фильма должна быть положительной");
+        return Paging.toNdjson(objectMapper, filmService.findFilms(after, from, to), limit);
+    }
+
+    @PostMapping
+    public Film create(@RequestBody Film film) throws ValidationException {
+        long start = System.nanoTime();
+        try {
+            Film created = filmService.create(film);
+            requestLog.saved(RequestLog.Endpoint.FILMS_CREATE, created.getId(), created.getVersion());
+            return created;
+        } finally {
+            metrics.filmCreate().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        if (film.getId() == null && films.isEmpty()) {
-            film.setId(1);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createBatch(@RequestBody List<Film> films) throws ValidationException {
+        Batches.checkSize(films.size(), maxBatchSize);
+        return applyBatch(films);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> createBatchFromNdjson(InputStream body) throws ValidationException {
+        return applyBatch(Batches.readNdjson(objectMapper, body, Film.class, maxBatchSize));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportFilms() {
+        BinaryEncoder<Film> encoder = catalogTransfer.exportFilms();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=films.bin")
+                .body(out -> CatalogTransfer.write(encoder, Channels.newChannel(out)));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ImportResult importFilms(InputStream body) throws ValidationException {
+        try {
+            return CatalogTransfer.read(Channels.newChannel(body), catalogTransfer.importFilms());
+        } catch (IOException e) {
+            throw new ValidationException("Некорректный файл импорта: " + e.getMessage());
         }
-        if (film.getId() == null) {
-            List<Integer> userIDs = new ArrayList<>();
-            for (Integer id : films.keySet()) {
-                userIDs.add(id);
-            }
-            var minID = Collections.min(userIDs);
-            if (minID > 1) {
-                minID = 0;
+    }
+
+    @PutMapping
+    public ResponseEntity<Film> update(@RequestBody Film film,
+                                       @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ValidationException {
+        long start = System.nanoTime();
+        try {
+            Long expected = Versions.fromIfMatch(ifMatch);
+            if (expected != null) {
+                film.setVersion(expected);
             }
-            for (Integer i : userIDs) {
-                if (!userIDs.contains(minID + 1)) {
-                    film.setId(minID + 1);
-                    break;
-                } else {
-                    minID++;
-                }
+            Optional<Film> updated = filmService.update(film);
+            if (updated.isPresent()) {
+                requestLog.saved(RequestLog.Endpoint.FILMS_UPDATE, updated.get().getId(), updated.get().getVersion());
+                return ResponseEntity.ok().eTag(Versions.etag(updated.get().getVersion())).body(updated.get());
             }
+            log.warn("Ошибка при добавлении фильма: отсутствует ID");
+            throw new RuntimeException("ID фильма отсутствует в базе данных");
+        } finally {
+            metrics.filmUpdate().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        log.info("Фильм успешно добавлен");
-        films.put(film.getId(), film);
-        return films.get(film.getId());
     }
 
-    @PutMapping
-    public Film update(@RequestBody @Valid Film film, BindingResult result, Errors fieldError) throws ValidationException {
-        log.info("Обновляем фильм...");
-        if (fieldError.hasErrors()) {
-            List<FieldError> errors = result.getFieldErrors();
-            for (FieldError error : errors) {
-                log.warn(error.getDefaultMessage());
-                throw new ValidationException(error.getDefaultMessage());
-            }
+    @PutMapping("/{id}/like/{userId}")
+    public void addLike(@PathVariable int id, @PathVariable int userId) {
+        filmService.addLike(id, userId);
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public void removeLike(@PathVariable int id, @PathVariable int userId) {
+        filmService.removeLike(id, userId);
+    }
+
+    @GetMapping("/popular")
+    public List<Film> getPopular(@RequestParam(defaultValue = "10") int count) throws ValidationException {
+        if (count <= 0) {
+            throw new ValidationException("Параметр count должен быть положительным");
         }
-        if (films.containsKey(film.getId())) {
-            log.info("Фильм успешно обновлён");
-            films.put(film.getId(), film);
-            return films.get(film.getId());
+        return filmService.getPopular(count);
+    }
+
+    @GetMapping("/search")
+    public List<Film> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit)
+            throws ValidationException {
+        Paging.checkLimit(limit, FilmService.MAX_SEARCH_LIMIT);
+        return filmService.search(q, limit);
+    }
+
+    @GetMapping("/stats")
+    public FilmStats getStats() {
+        return filmService.getStats();
+    }
+
+    @GetMapping("/search/stats")
+    public SearchIndexStats getSearchIndexStats() {
+        return filmService.getSearchIndexStats();
+    }
+
+    private ResponseEntity<?> applyBatch(List<Film> films) {
+        List<ItemError> errors = filmService.validateAll(films);
+        if (!errors.isEmpty()) {
+            log.warn("Пакет фильмов отклонён: {} ошибок", errors.size());
+            return ResponseEntity.badRequest().body(errors);
         }
-        log.warn("Ошибка при добавлении фильма: отсутствует ID");
-        throw new RuntimeException("ID фильма отсутствует в базе данных");
+        List<Film> created = filmService.createAll(films);
+        requestLog.batchSaved(RequestLog.Endpoint.FILMS_BATCH, created.size());
+        return ResponseEntity.ok(created);
     }
 
     public void deleteHelper() {
-        films.clear();
+        filmService.clear();
     }
 
 }
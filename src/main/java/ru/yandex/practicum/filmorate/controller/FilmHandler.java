@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.logging.RequestLog;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ItemError;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.transfer.CatalogTransfer;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static ru.yandex.practicum.filmorate.controller.Reactive.*;
+
+/**
+ * WebFlux counterpart of {@link FilmController}, used when the application runs as a
+ * reactive web application.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+class FilmHandler {
+
+    private static final ParameterizedTypeReference<List<Film>> FILMS = new ParameterizedTypeReference<>() {
+    };
+
+    private final FilmStorage filmStorage;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final FilmorateMetrics metrics;
+    private final RequestLog requestLog;
+    private final CatalogTransfer catalogTransfer;
+    private final CollectionCache cache = new CollectionCache("films");
+    @Value("${filmorate.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    Mono<ServerResponse> getAll(ServerRequest request) {
+        return timed(metrics.filmGetAll(), handle(() -> {
+            Integer limit = intParam(request, "limit");
+            Integer after = intParam(request, "after");
+            LocalDate from = dateParam(request, "from");
+            LocalDate to = dateParam(request, "to");
+            Paging.checkLimit(limit);
+            long version = filmStorage.version();
+            String etag = cache.etag(version, CollectionCache.variant("json", limit, after, from, to));
+            return request.checkNotModified(etag).switchIfEmpty(handle(() -> {
+                ServerResponse.BodyBuilder ok = ServerResponse.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON);
+                if (limit == null && after == null && from == null && to == null) {
+                    return ok.bodyValue(cache.json(objectMapper, version, filmStorage::findAll));
+                }
+                return ok.bodyValue(Paging.toList(filmService.findFilms(after, from, to), limit));
+            }));
+        }));
+    }
+
+    Mono<ServerResponse> stream(ServerRequest request) {
+        return handle(() -> {
+            Integer limit = intParam(request, "limit");
+            Integer after = intParam(request, "after");
+            LocalDate from = dateParam(request, "from");
+            LocalDate to = dateParam(request, "to");
+            Paging.checkLimit(limit);
+            String etag = cache.etag(filmStorage.version(), CollectionCache.variant("ndjson", limit, after, from, to));
+            return request.checkNotModified(etag).switchIfEmpty(handle(() -> {
+                Flux<Film> films = Flux.fromIterable(filmService.findFilms(after, from, to));
+                return ServerResponse.ok().eTag(etag).contentType(NDJSON_UTF8)
+                        .body(limit == null ? films : films.take(limit), Film.class);
+            }));
+        });
+    }
+
+    Mono<ServerResponse> create(ServerRequest request) {
+        return timed(metrics.filmCreate(), body(request, Film.class)
+                .flatMap(film -> blocking(() -> {
+                    Film created = filmService.create(film);
+                    requestLog.saved(RequestLog.Endpoint.FILMS_CREATE, created.getId(), created.getVersion());
+                    return created;
+                }))
+                .flatMap(created -> ServerResponse.ok().bodyValue(created)));
+    }
+
+    Mono<ServerResponse> createBatch(ServerRequest request) {
+        return request.bodyToMono(FILMS)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Тело запроса отсутствует")))
+                .flatMap(this::applyBatch);
+    }
+
+    Mono<ServerResponse> createBatchFromNdjson(ServerRequest request) {
+        return request.bodyToFlux(Film.class)
+                .take(maxBatchSize + 1L)
+                .collectList()
+                .onErrorMap(e -> e instanceof DecodingException || e instanceof ServerWebInputException,
+                        e -> new ValidationException("Некорректная строка NDJSON в пакете: " + e.getMessage()))
+                .flatMap(this::applyBatch);
+    }
+
+    Mono<ServerResponse> update(ServerRequest request) {
+        return timed(metrics.filmUpdate(), body(request, Film.class)
+                .flatMap(film -> blocking(() -> {
+                    Long expected = Versions.fromIfMatch(request.headers().firstHeader(HttpHeaders.IF_MATCH));
+                    if (expected != null) {
+                        film.setVersion(expected);
+                    }
+                    Optional<Film> updated = filmService.update(film);
+                    if (updated.isPresent()) {
+                        requestLog.saved(RequestLog.Endpoint.FILMS_UPDATE, updated.get().getId(), updated.get().getVersion());
+                        return updated.get();
+                    }
+                    log.warn("Ошибка при добавлении фильма: отсутствует ID");
+                    throw new RuntimeException("ID фильма отсутствует в базе данных");
+                }))
+                .flatMap(updated -> ServerResponse.ok().eTag(Versions.etag(updated.getVersion())).bodyValue(updated)));
+    }
+
+    Mono<ServerResponse> addLike(ServerRequest request) {
+        return handle(() -> {
+            int id = intVariable(request, "id");
+            int userId = intVariable(request, "userId");
+            return blocking(() -> {
+                filmService.addLike(id, userId);
+                return true;
+            }).then(ServerResponse.ok().build());
+        });
+    }
+
+    Mono<ServerResponse> removeLike(ServerRequest request) {
+        return handle(() -> {
+            int id = intVariable(request, "id");
+            int userId = intVariable(request, "userId");
+            return blocking(() -> {
+                filmService.removeLike(id, userId);
+                return true;
+            }).then(ServerResponse.ok().build());
+        });
+    }
+
+    Mono<ServerResponse> getPopular(ServerRequest request) {
+        return handle(() -> {
+            Integer count = intParam(request, "count");
+            if (count == null) {
+                count = 10;
+            }
+            if (count <= 0) {
+                throw new ValidationException("Параметр count должен быть положительным");
+            }
+            return ServerResponse.ok().bodyValue(filmService.getPopular(count));
+        });
+    }
+
+    Mono<ServerResponse> search(ServerRequest request) {
+        return handle(() -> {
+            String query = requiredParam(request, "q");
+            Integer limit = intParam(request, "limit");
+            if (limit == null) {
+                limit = 20;
+            }
+            Paging.checkLimit(limit, FilmService.MAX_SEARCH_LIMIT);
+            return ServerResponse.ok().bodyValue(filmService.search(query, limit));
+        });
+    }
+
+    Mono<ServerResponse> getStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(filmService.getStats());
+    }
+
+    Mono<ServerResponse> getSearchIndexStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(filmService.getSearchIndexStats());
+    }
+
+    Mono<ServerResponse> exportFilms(ServerRequest request) {
+        return handle(() -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=films.bin")
+                .body(BodyInserters.fromDataBuffers(exportChunks(catalogTransfer.exportFilms()))));
+    }
+
+    Mono<ServerResponse> importFilms(ServerRequest request) {
+        return importBody(request, catalogTransfer.importFilms())
+                .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    private Mono<ServerResponse> applyBatch(List<Film> films) {
+        return blocking(() -> {
+            Batches.checkSize(films.size(), maxBatchSize);
+            List<ItemError> errors = filmService.validateAll(films);
+            if (!errors.isEmpty()) {
+                log.warn("Пакет фильмов отклонён: {} ошибок", errors.size());
+                return ServerResponse.badRequest().bodyValue(errors);
+            }
+            List<Film> created = filmService.createAll(films);
+            requestLog.batchSaved(RequestLog.Endpoint.FILMS_BATCH, created.size());
+            return ServerResponse.ok().bodyValue(created);
+        }).flatMap(Function.identity());
+    }
+}
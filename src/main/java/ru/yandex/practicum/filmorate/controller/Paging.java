@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+final class Paging {
+
+    private static final MediaType NDJSON_UTF8 = new MediaType(MediaType.APPLICATION_NDJSON, StandardCharsets.UTF_8);
+
+    private Paging() {
+    }
+
+    static void checkLimit(Integer limit) throws ValidationException {
+        if (limit != null && limit <= 0) {
+            throw new ValidationException("Параметр limit должен быть положительным");
+        }
+    }
+
+    static void checkLimit(int limit, int max) throws ValidationException {
+        if (limit <= 0 || limit > max) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + max);
+        }
+    }
+
+    static <T> List<T> toList(Collection<T> items, Integer limit) {
+        if (limit == null) {
+            return new ArrayList<>(items);
+        }
+        List<T> page = new ArrayList<>(Math.min(limit, 1024));
+        for (T item : items) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(item);
+        }
+        return page;
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> toNdjson(ObjectMapper objectMapper, Collection<T> items, Integer limit) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                int written = 0;
+                for (T item : items) {
+                    if (limit != null && written == limit) {
+                        break;
+                    }
+                    writer.writeValue(generator, item);
+                    generator.writeRaw('\n');
+                    written++;
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON_UTF8).body(body);
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.transfer.BinaryEncoder;
+import ru.yandex.practicum.filmorate.transfer.CatalogTransfer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helpers shared by the WebFlux handlers. Request parsing follows what Spring MVC does
+ * for the annotated controllers, so both stacks answer the same way.
+ */
+final class Reactive {
+
+    static final MediaType NDJSON_UTF8 = new MediaType(MediaType.APPLICATION_NDJSON, StandardCharsets.UTF_8);
+
+    private Reactive() {
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        Mono<ServerResponse> handle() throws Exception;
+    }
+
+    static Mono<ServerResponse> handle(Handler handler) {
+        return Mono.defer(() -> {
+            try {
+                return handler.handle();
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+        });
+    }
+
+    /**
+     * Runs a call that may block, e.g. on a journal fsync, off the event loop.
+     */
+    static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Chunks of an export, encoded on demand so a slow client holds back the encoder.
+     */
+    static Flux<DataBuffer> exportChunks(BinaryEncoder<?> encoder) {
+        return Flux.<DataBuffer, BinaryEncoder<?>>generate(() -> encoder, (state, sink) -> {
+            ByteBuffer buffer = ByteBuffer.allocate(CatalogTransfer.CHUNK_SIZE);
+            boolean more = state.fill(buffer);
+            buffer.flip();
+            sink.next(DefaultDataBufferFactory.sharedInstance.wrap(buffer));
+            if (!more) {
+                sink.complete();
+            }
+            return state;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Feeds the request body to the import as it arrives, off the event loop.
+     */
+    static Mono<ImportResult> importBody(ServerRequest request, CatalogTransfer.Import target) {
+        return request.body(BodyExtractors.toDataBuffers())
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(buffer -> {
+                    try {
+                        target.feed(buffer.asByteBuffer());
+                    } catch (IOException e) {
+                        throw Exceptions.propagate(e);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .then(Mono.fromCallable(target::finish))
+                .onErrorMap(e -> Exceptions.unwrap(e) instanceof IOException,
+                        e -> new ValidationException("Некорректный файл импорта: " + Exceptions.unwrap(e).getMessage()));
+    }
+
+    static Mono<ServerResponse> timed(Timer timer, Mono<ServerResponse> response) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return response.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    static <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Тело запроса отсутствует")));
+    }
+
+    static boolean acceptsNdjson(ServerRequest request) {
+        for (MediaType type : request.headers().accept()) {
+            if (!type.isWildcardType() && !type.isWildcardSubtype() && type.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Integer intParam(ServerRequest request, String name) {
+        return request.queryParam(name).map(value -> parseInt(name, value)).orElse(null);
+    }
+
+    static Long longParam(ServerRequest request, String name) {
+        return request.queryParam(name).map(value -> {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new ServerWebInputException("Параметр " + name + " должен быть целым числом");
+            }
+        }).orElse(null);
+    }
+
+    static int intVariable(ServerRequest request, String name) {
+        return parseInt(name, request.pathVariable(name));
+    }
+
+    static LocalDate dateParam(ServerRequest request, String name) {
+        return request.queryParam(name).map(value -> {
+            try {
+                return LocalDate.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new ServerWebInputException("Параметр " + name + " должен быть датой в формате ГГГГ-ММ-ДД");
+            }
+        }).orElse(null);
+    }
+
+    static String requiredParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .orElseThrow(() -> new ServerWebInputException("Отсутствует обязательный параметр " + name));
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Параметр " + name + " должен быть целым числом");
+        }
+    }
+}
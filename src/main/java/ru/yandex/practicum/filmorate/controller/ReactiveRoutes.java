@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import ru.yandex.practicum.filmorate.event.ChangeEventLog;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.ReplicationBatch;
+import ru.yandex.practicum.filmorate.model.ReplicationSnapshot;
+import ru.yandex.practicum.filmorate.replication.Replication;
+import ru.yandex.practicum.filmorate.replication.ReplicationFollower;
+import ru.yandex.practicum.filmorate.replication.ReplicationSource;
+
+import java.util.Optional;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Routes of the non-blocking API, active with {@code spring.main.web-application-type=reactive}
+ * (the {@code reactive} profile). They mirror the servlet controllers path for path.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+class ReactiveRoutes {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<Object>> EVENTS = new ParameterizedTypeReference<>() {
+    };
+
+    /**
+     * Tomcat stays on the classpath for the servlet mode and would otherwise be picked
+     * for the reactive one too; the point of this mode is Netty's event loop.
+     */
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    RouterFunction<ServerResponse> filmRoutes(FilmHandler films, FilmorateMetrics metrics) {
+        return route()
+                .path("/films", builder -> builder
+                        .GET("", Reactive::acceptsNdjson, films::stream)
+                        .GET("", films::getAll)
+                        .POST("", films::create)
+                        .PUT("", films::update)
+                        .POST("/batch", contentType(MediaType.APPLICATION_NDJSON), films::createBatchFromNdjson)
+                        .POST("/batch", contentType(MediaType.APPLICATION_JSON), films::createBatch)
+                        .GET("/export", films::exportFilms)
+                        .POST("/import", contentType(MediaType.APPLICATION_OCTET_STREAM), films::importFilms)
+                        .PUT("/{id}/like/{userId}", films::addLike)
+                        .DELETE("/{id}/like/{userId}", films::removeLike)
+                        .GET("/popular", films::getPopular)
+                        .GET("/stats", films::getStats)
+                        .GET("/search/stats", films::getSearchIndexStats)
+                        .GET("/search", films::search))
+                .filter(countingValidationFailures(metrics.filmValidationFailures()))
+                .build();
+    }
+
+    @Bean
+    RouterFunction<ServerResponse> userRoutes(UserHandler users, FilmorateMetrics metrics) {
+        return route()
+                .path("/users", builder -> builder
+                        .GET("", Reactive::acceptsNdjson, users::streamUsers)
+                        .GET("", users::getUsers)
+                        .POST("", users::postUser)
+                        .PUT("", users::putOrUpdateUser)
+                        .POST("/batch", contentType(MediaType.APPLICATION_NDJSON), users::postUsersFromNdjson)
+                        .POST("/batch", contentType(MediaType.APPLICATION_JSON), users::postUsers)
+                        .GET("/export", users::exportUsers)
+                        .POST("/import", contentType(MediaType.APPLICATION_OCTET_STREAM), users::importUsers)
+                        .PUT("/{id}/friends/{friendId}", users::addFriend)
+                        .DELETE("/{id}/friends/{friendId}", users::removeFriend)
+                        .GET("/stats", users::getStats)
+                        .GET("/{id}/friends", users::getFriends)
+                        .GET("/{id}/friends/common/{otherId}", users::getCommonFriends)
+                        .GET("/{id}/recommendations", users::getRecommendations))
+                .filter(countingValidationFailures(metrics.userValidationFailures()))
+                .build();
+    }
+
+    @Bean
+    RouterFunction<ServerResponse> eventRoutes(ChangeEventLog changeEventLog) {
+        return route()
+                .GET("/events", request -> Reactive.handle(() -> ServerResponse.ok()
+                        .contentType(MediaType.TEXT_EVENT_STREAM)
+                        .body(EventStream.subscribe(changeEventLog, Reactive.longParam(request, "after"),
+                                request.headers().firstHeader("Last-Event-ID")), EVENTS)))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = Replication.ROLE)
+    RouterFunction<ServerResponse> replicationRoutes(ReplicationSource source,
+                                                     Optional<ReplicationFollower> follower) {
+        return route()
+                .path("/replication", builder -> builder
+                        .GET("/log", request -> Reactive.handle(() -> ServerResponse.ok()
+                                .body(source.read(longOrZero(request, "epoch"), longOrZero(request, "after"),
+                                        Optional.ofNullable(Reactive.intParam(request, "limit")).orElse(1000),
+                                        longOrZero(request, "wait")), ReplicationBatch.class)))
+                        .GET("/snapshot", request -> ServerResponse.ok()
+                                .body(Reactive.blocking(source::snapshot), ReplicationSnapshot.class))
+                        .GET("/status", request -> ServerResponse.ok()
+                                .bodyValue(follower.map(ReplicationFollower::status).orElseGet(source::status))))
+                .build();
+    }
+
+    private static long longOrZero(ServerRequest request, String name) {
+        Long value = Reactive.longParam(request, name);
+        return value == null ? 0 : value;
+    }
+
+    private static HandlerFilterFunction<ServerResponse, ServerResponse> countingValidationFailures(Counter counter) {
+        return (request, next) -> next.handle(request).doOnError(ValidationException.class, e -> counter.increment());
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.ReplicationBatch;
+import ru.yandex.practicum.filmorate.model.ReplicationSnapshot;
+import ru.yandex.practicum.filmorate.model.ReplicationStatus;
+import ru.yandex.practicum.filmorate.replication.Replication;
+import ru.yandex.practicum.filmorate.replication.ReplicationFollower;
+import ru.yandex.practicum.filmorate.replication.ReplicationSource;
+
+import java.util.Optional;
+
+@RestController
+@ConditionalOnProperty(name = Replication.ROLE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+@RequestMapping("/replication")
+public class ReplicationController {
+
+    private final ReplicationSource source;
+    private final Optional<ReplicationFollower> follower;
+
+    @GetMapping("/log")
+    public Mono<ReplicationBatch> read(@RequestParam(defaultValue = "0") long epoch,
+                                       @RequestParam(defaultValue = "0") long after,
+                                       @RequestParam(defaultValue = "1000") int limit,
+                                       @RequestParam(defaultValue = "0") long wait) {
+        return source.read(epoch, after, limit, wait);
+    }
+
+    @GetMapping("/snapshot")
+    public ReplicationSnapshot snapshot() {
+        return source.snapshot();
+    }
+
+    @GetMapping("/status")
+    public ReplicationStatus status() {
+        return follower.map(ReplicationFollower::status).orElseGet(source::status);
+    }
+}
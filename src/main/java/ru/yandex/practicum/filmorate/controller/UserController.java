@@ -1,98 +1,200 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.validation.BindingResult;
-import org.springframework.validation.Errors;
-import org.springframework.validation.FieldError;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.logging.RequestLog;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.ItemError;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserStats;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.transfer.BinaryEncoder;
+import ru.yandex.practicum.filmorate.transfer.CatalogTransfer;
 
-import javax.validation.Valid;
-import java.time.LocalDate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
 @RequestMapping("/users")
 public class UserController {
 
-    private Map<Integer, User> users = new HashMap<>();
+    private final UserStorage userStorage;
+    private final UserService userService;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final FilmorateMetrics metrics;
+    private final RequestLog requestLog;
+    private final CatalogTransfer catalogTransfer;
+    private final CollectionCache cache = new CollectionCache("users");
+    @Value("${filmorate.batch.max-size:10000}")
+    private int maxBatchSize;
 
     @GetMapping
-    public List<User> getUsers() {
-        List<User> usersList = new ArrayList<>();
-        for (var user : users.values()) {
-            usersList.add(user);
+    public ResponseEntity<?> getUsers(@RequestParam(required = false) Integer limit,
+                                      @RequestParam(required = false) Integer after,
+                                      WebRequest request) throws ValidationException, JsonProcessingException {
+        long start = System.nanoTime();
+        try {
+            Paging.checkLimit(limit);
+            long version = userStorage.version();
+            String etag = cache.etag(version, CollectionCache.variant("json", limit, after, null, null));
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            if (limit == null && after == null) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(cache.json(objectMapper, version, userStorage::findAll));
+            }
+            return ResponseEntity.ok(Paging.toList(userService.findUsers(after), limit));
+        } finally {
+            metrics.userGetAll().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        return usersList;
     }
 
-    @PostMapping
-    public User postUser(@RequestBody @Valid User user, BindingResult result, Errors fieldError) throws ValidationException {
-        log.info("Добавляем пользователя...");
-        if (fieldError.hasErrors()) {
-            List<FieldError> errors = result.getFieldErrors();
-            for (FieldError error : errors) {
-                log.warn(error.getDefaultMessage());
-                throw new ValidationException(error.getDefaultMessage());
-            }
-        }
-        if (user.getBirthday().isAfter(LocalDate.now())) {
-            log.warn("Ошибка при добавлении пользователя: указана неправильная дата рождения");
-            throw new ValidationException("Дата рождения не может быть в будущем");
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) Integer after,
+                                                             WebRequest request) throws ValidationException {
+        Paging.checkLimit(limit);
+        String etag = cache.etag(userStorage.version(), CollectionCache.variant("ndjson", limit, after, null, null));
+        if (request.checkNotModified(etag)) {
+            return null;
         }
-        if (user.getName() == null || user.getName().isEmpty()) {
-            log.info("Имя пользователя отсутствует, теперь логин является именем пользователя");
-            user.setName(user.getLogin());
+        return Paging.toNdjson(objectMapper, userService.findUsers(after), limit);
+    }
+
+    @PostMapping
+    public User postUser(@RequestBody User user) throws ValidationException {
+        long start = System.nanoTime();
+        try {
+            User created = userService.create(user);
+            requestLog.saved(RequestLog.Endpoint.USERS_CREATE, created.getId(), created.getVersion());
+            return created;
+        } finally {
+            metrics.userCreate().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        if (user.getId() == null && users.isEmpty()) {
-            user.setId(1);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> postUsers(@RequestBody List<User> users) throws ValidationException {
+        Batches.checkSize(users.size(), maxBatchSize);
+        return applyBatch(users);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> postUsersFromNdjson(InputStream body) throws ValidationException {
+        return applyBatch(Batches.readNdjson(objectMapper, body, User.class, maxBatchSize));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        BinaryEncoder<User> encoder = catalogTransfer.exportUsers();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.bin")
+                .body(out -> CatalogTransfer.write(encoder, Channels.newChannel(out)));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ImportResult importUsers(InputStream body) throws ValidationException {
+        try {
+            return CatalogTransfer.read(Channels.newChannel(body), catalogTransfer.importUsers());
+        } catch (IOException e) {
+            throw new ValidationException("Некорректный файл импорта: " + e.getMessage());
         }
-        if (user.getId() == null) {
-            List<Integer> userIDs = new ArrayList<>();
-            for (Integer id : users.keySet()) {
-                userIDs.add(id);
-            }
-            var minID = Collections.min(userIDs);
-            if (minID > 1) {
-                minID = 0;
+    }
+
+    @PutMapping
+    public ResponseEntity<User> putOrUpdateUser(@RequestBody User user,
+                                                @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ValidationException {
+        long start = System.nanoTime();
+        try {
+            Long expected = Versions.fromIfMatch(ifMatch);
+            if (expected != null) {
+                user.setVersion(expected);
             }
-            for (Integer i : userIDs) {
-                if (!userIDs.contains(minID + 1)) {
-                    user.setId(minID + 1);
-                    break;
-                } else {
-                    minID++;
-                }
+            Optional<User> updated = userService.update(user);
+            if (updated.isPresent()) {
+                requestLog.saved(RequestLog.Endpoint.USERS_UPDATE, updated.get().getId(), updated.get().getVersion());
+                return ResponseEntity.ok().eTag(Versions.etag(updated.get().getVersion())).body(updated.get());
             }
+            log.warn("Ошибка при обновлении пользователя: указан неверный ID");
+            throw new RuntimeException("ID пользователя отсутствует в базе данных");
+        } finally {
+            metrics.userUpdate().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        users.put(user.getId(), user);
-        log.info("Пользователь успешно добавлен");
-        return users.get(user.getId());
     }
 
-    @PutMapping
-    public User putOrUpdateUser(@RequestBody @Valid User user, BindingResult result, Errors fieldError) throws ValidationException {
-        log.info("Обновляем пользователя...");
-        if (fieldError.hasErrors()) {
-            List<FieldError> errors = result.getFieldErrors();
-            for (FieldError error : errors) {
-                log.warn(error.getDefaultMessage());
-                throw new ValidationException(error.getDefaultMessage());
-            }
+    @PutMapping("/{id}/friends/{friendId}")
+    public void addFriend(@PathVariable int id, @PathVariable int friendId) throws ValidationException {
+        userService.addFriend(id, friendId);
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public void removeFriend(@PathVariable int id, @PathVariable int friendId) {
+        userService.removeFriend(id, friendId);
+    }
+
+    @GetMapping("/{id}/friends")
+    public List<User> getFriends(@PathVariable int id) {
+        return userService.getFriends(id);
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public List<User> getCommonFriends(@PathVariable int id, @PathVariable int otherId) {
+        return userService.getCommonFriends(id, otherId);
+    }
+
+    @GetMapping("/stats")
+    public UserStats getStats(@RequestParam(defaultValue = "10") int domains) throws ValidationException {
+        return userService.getStats(domains);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable int id, @RequestParam(defaultValue = "10") int count)
+            throws ValidationException {
+        if (count <= 0) {
+            throw new ValidationException("Параметр count должен быть положительным");
         }
-        if (users.containsKey(user.getId())) {
-            log.info("Пользователь успешно обновлён");
-            users.put(user.getId(), user);
-            return users.get(user.getId());
+        return filmService.getRecommendations(id, count);
+    }
+
+    private ResponseEntity<?> applyBatch(List<User> users) {
+        List<ItemError> errors = userService.validateAll(users);
+        if (!errors.isEmpty()) {
+            log.warn("Пакет пользователей отклонён: {} ошибок", errors.size());
+            return ResponseEntity.badRequest().body(errors);
         }
-        log.warn("Ошибка при обновлении пользователя: указан неверный ID");
-        throw new RuntimeException("ID пользователя отсутствует в базе данных");
+        List<User> created = userService.createAll(users);
+        requestLog.batchSaved(RequestLog.Endpoint.USERS_BATCH, created.size());
+        return ResponseEntity.ok(created);
     }
 
     public void deleteHelper() {
-        users.clear();
+        userService.clear();
     }
 
 }
@@ -0,0 +1,212 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.logging.RequestLog;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.ItemError;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.transfer.CatalogTransfer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static ru.yandex.practicum.filmorate.controller.Reactive.*;
+
+/**
+ * WebFlux counterpart of {@link UserController}, used when the application runs as a
+ * reactive web application.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+class UserHandler {
+
+    private static final ParameterizedTypeReference<List<User>> USERS = new ParameterizedTypeReference<>() {
+    };
+
+    private final UserStorage userStorage;
+    private final UserService userService;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final FilmorateMetrics metrics;
+    private final RequestLog requestLog;
+    private final CatalogTransfer catalogTransfer;
+    private final CollectionCache cache = new CollectionCache("users");
+    @Value("${filmorate.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    Mono<ServerResponse> getUsers(ServerRequest request) {
+        return timed(metrics.userGetAll(), handle(() -> {
+            Integer limit = intParam(request, "limit");
+            Integer after = intParam(request, "after");
+            Paging.checkLimit(limit);
+            long version = userStorage.version();
+            String etag = cache.etag(version, CollectionCache.variant("json", limit, after, null, null));
+            return request.checkNotModified(etag).switchIfEmpty(handle(() -> {
+                ServerResponse.BodyBuilder ok = ServerResponse.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON);
+                if (limit == null && after == null) {
+                    return ok.bodyValue(cache.json(objectMapper, version, userStorage::findAll));
+                }
+                return ok.bodyValue(Paging.toList(userService.findUsers(after), limit));
+            }));
+        }));
+    }
+
+    Mono<ServerResponse> streamUsers(ServerRequest request) {
+        return handle(() -> {
+            Integer limit = intParam(request, "limit");
+            Integer after = intParam(request, "after");
+            Paging.checkLimit(limit);
+            String etag = cache.etag(userStorage.version(), CollectionCache.variant("ndjson", limit, after, null, null));
+            return request.checkNotModified(etag).switchIfEmpty(handle(() -> {
+                Flux<User> users = Flux.fromIterable(userService.findUsers(after));
+                return ServerResponse.ok().eTag(etag).contentType(NDJSON_UTF8)
+                        .body(limit == null ? users : users.take(limit), User.class);
+            }));
+        });
+    }
+
+    Mono<ServerResponse> postUser(ServerRequest request) {
+        return timed(metrics.userCreate(), body(request, User.class)
+                .flatMap(user -> blocking(() -> {
+                    User created = userService.create(user);
+                    requestLog.saved(RequestLog.Endpoint.USERS_CREATE, created.getId(), created.getVersion());
+                    return created;
+                }))
+                .flatMap(created -> ServerResponse.ok().bodyValue(created)));
+    }
+
+    Mono<ServerResponse> postUsers(ServerRequest request) {
+        return request.bodyToMono(USERS)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Тело запроса отсутствует")))
+                .flatMap(this::applyBatch);
+    }
+
+    Mono<ServerResponse> postUsersFromNdjson(ServerRequest request) {
+        return request.bodyToFlux(User.class)
+                .take(maxBatchSize + 1L)
+                .collectList()
+                .onErrorMap(e -> e instanceof DecodingException || e instanceof ServerWebInputException,
+                        e -> new ValidationException("Некорректная строка NDJSON в пакете: " + e.getMessage()))
+                .flatMap(this::applyBatch);
+    }
+
+    Mono<ServerResponse> putOrUpdateUser(ServerRequest request) {
+        return timed(metrics.userUpdate(), body(request, User.class)
+                .flatMap(user -> blocking(() -> {
+                    Long expected = Versions.fromIfMatch(request.headers().firstHeader(HttpHeaders.IF_MATCH));
+                    if (expected != null) {
+                        user.setVersion(expected);
+                    }
+                    Optional<User> updated = userService.update(user);
+                    if (updated.isPresent()) {
+                        requestLog.saved(RequestLog.Endpoint.USERS_UPDATE, updated.get().getId(), updated.get().getVersion());
+                        return updated.get();
+                    }
+                    log.warn("Ошибка при обновлении пользователя: указан неверный ID");
+                    throw new RuntimeException("ID пользователя отсутствует в базе данных");
+                }))
+                .flatMap(updated -> ServerResponse.ok().eTag(Versions.etag(updated.getVersion())).bodyValue(updated)));
+    }
+
+    Mono<ServerResponse> addFriend(ServerRequest request) {
+        return handle(() -> {
+            int id = intVariable(request, "id");
+            int friendId = intVariable(request, "friendId");
+            return blocking(() -> {
+                userService.addFriend(id, friendId);
+                return true;
+            }).then(ServerResponse.ok().build());
+        });
+    }
+
+    Mono<ServerResponse> removeFriend(ServerRequest request) {
+        return handle(() -> {
+            int id = intVariable(request, "id");
+            int friendId = intVariable(request, "friendId");
+            return blocking(() -> {
+                userService.removeFriend(id, friendId);
+                return true;
+            }).then(ServerResponse.ok().build());
+        });
+    }
+
+    Mono<ServerResponse> getFriends(ServerRequest request) {
+        return handle(() -> ServerResponse.ok().bodyValue(userService.getFriends(intVariable(request, "id"))));
+    }
+
+    Mono<ServerResponse> getCommonFriends(ServerRequest request) {
+        return handle(() -> ServerResponse.ok().bodyValue(
+                userService.getCommonFriends(intVariable(request, "id"), intVariable(request, "otherId"))));
+    }
+
+    Mono<ServerResponse> getStats(ServerRequest request) {
+        return handle(() -> {
+            Integer domains = intParam(request, "domains");
+            if (domains == null) {
+                domains = 10;
+            }
+            return ServerResponse.ok().bodyValue(userService.getStats(domains));
+        });
+    }
+
+    Mono<ServerResponse> getRecommendations(ServerRequest request) {
+        return handle(() -> {
+            Integer count = intParam(request, "count");
+            if (count == null) {
+                count = 10;
+            }
+            if (count <= 0) {
+                throw new ValidationException("Параметр count должен быть положительным");
+            }
+            return ServerResponse.ok().bodyValue(filmService.getRecommendations(intVariable(request, "id"), count));
+        });
+    }
+
+    Mono<ServerResponse> exportUsers(ServerRequest request) {
+        return handle(() -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.bin")
+                .body(BodyInserters.fromDataBuffers(exportChunks(catalogTransfer.exportUsers()))));
+    }
+
+    Mono<ServerResponse> importUsers(ServerRequest request) {
+        return importBody(request, catalogTransfer.importUsers())
+                .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    private Mono<ServerResponse> applyBatch(List<User> users) {
+        return blocking(() -> {
+            Batches.checkSize(users.size(), maxBatchSize);
+            List<ItemError> errors = userService.validateAll(users);
+            if (!errors.isEmpty()) {
+                log.warn("Пакет пользователей отклонён: {} ошибок", errors.size());
+                return ServerResponse.badRequest().bodyValue(errors);
+            }
+            List<User> created = userService.createAll(users);
+            requestLog.batchSaved(RequestLog.Endpoint.USERS_BATCH, created.size());
+            return ServerResponse.ok().bodyValue(created);
+        }).flatMap(Function.identity());
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Counts ValidationExceptions thrown by handlers and leaves the response to the
+ * resolvers that follow.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+class ValidationFailureCounter implements HandlerExceptionResolver, Ordered {
+
+    private final FilmorateMetrics metrics;
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception ex) {
+        if (ex instanceof ValidationException) {
+            Class<?> controller = handler instanceof HandlerMethod ? ((HandlerMethod) handler).getBeanType() : null;
+            if (controller == FilmController.class) {
+                metrics.filmValidationFailures().increment();
+            } else if (controller == UserController.class) {
+                metrics.userValidationFailures().increment();
+            } else {
+                metrics.otherValidationFailures().increment();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import ru.yandex.practicum.filmorate.exception.PreconditionFailedException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+/**
+ * Entity versions travel as ETags of the form {@code "3"}: a PUT answers with the new version
+ * in its ETag, and If-Match on the next PUT makes that update conditional on it, the same as
+ * a {@code version} field in the body.
+ */
+final class Versions {
+
+    private Versions() {
+    }
+
+    static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version required by an If-Match header, or null when there is no condition
+     * ({@code *} only asks for the entity to exist, which PUT checks anyway). If-Match
+     * compares strongly, so a weak tag never matches and fails the precondition.
+     */
+    static Long fromIfMatch(String ifMatch) throws ValidationException {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("Слабый тег " + tag + " в заголовке If-Match не совпадает ни с одной версией");
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new ValidationException("Заголовок If-Match должен содержать версию в кавычках");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Заголовок If-Match должен содержать версию в кавычках");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The last {@code filmorate.events.buffer-size} changes in a ring buffer, numbered from 1.
+ * Writers claim a sequence number with one atomic increment and store a reference without a
+ * lock; they only take turns to send the wake-up signal, and never wait for readers: every
+ * subscriber keeps its own position and reads at its own pace, and one that falls more than
+ * a buffer behind loses the overwritten events rather than holding them in memory.
+ */
+@Component
+public class ChangeEventLog {
+
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final int mask;
+    private final Sinks.Many<Long> published = Sinks.many().multicast().directBestEffort();
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    public ChangeEventLog(@Value("${filmorate.events.buffer-size:4096}") int bufferSize) {
+        int capacity = Integer.highestOneBit(Math.max(bufferSize - 1, 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public void publish(String type, Object data) {
+        long sequence = lastSequence.incrementAndGet();
+        store(new ChangeEvent(sequence, type, data, System.currentTimeMillis()));
+        // Readers stop at a slot claimed but not stored yet, so its wake-up must not be lost:
+        // retry while another writer is emitting. A subscriber that is not asking for more
+        // needs none, it reads everything after its position on its next request.
+        Sinks.EmitResult result = published.tryEmitNext(sequence);
+        while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.yield();
+            result = published.tryEmitNext(sequence);
+        }
+    }
+
+    /**
+     * The last claimed sequence number. Its event may still be on its way into the buffer,
+     * in which case {@link #readAfter} stops before it and a later read returns it.
+     */
+    public long lastSequence() {
+        return lastSequence.get();
+    }
+
+    /**
+     * Up to {@code max} events after the given sequence number, oldest first. When some of
+     * them have already been overwritten, the list starts at the oldest one still buffered.
+     */
+    public List<ChangeEvent> readAfter(long after, int max) {
+        long last = lastSequence.get();
+        long from = Math.max(after + 1, last - mask);
+        List<ChangeEvent> events = new ArrayList<>((int) Math.min(max, Math.max(last - from + 1, 0)));
+        for (long sequence = from; sequence <= last && events.size() < max; sequence++) {
+            ChangeEvent event = ring.get((int) (sequence & mask));
+            if (event == null || event.getSequence() < sequence) {
+                // Claimed but not stored yet: stop here, its writer wakes subscribers when it is.
+                break;
+            }
+            if (event.getSequence() > sequence) {
+                // Overwritten while reading: this reader is a full buffer behind, skip ahead.
+                events.clear();
+                return readAfter(lastSequence.get() - mask - 1, max);
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Stores the event in its slot unless a writer that claimed its sequence later, a full
+     * buffer ahead, got there first: the older event is overwritten anyway.
+     */
+    private void store(ChangeEvent event) {
+        int slot = (int) (event.getSequence() & mask);
+        ChangeEvent current = ring.get(slot);
+        while (current == null || current.getSequence() < event.getSequence()) {
+            if (ring.compareAndSet(slot, current, event)) {
+                return;
+            }
+            current = ring.get(slot);
+        }
+    }
+
+    /**
+     * Sequence numbers as they are published, for subscribers to wake up on. Signals are
+     * dropped for subscribers that are not asking for more.
+     */
+    public Flux<Long> published() {
+        return published.asFlux();
+    }
+}
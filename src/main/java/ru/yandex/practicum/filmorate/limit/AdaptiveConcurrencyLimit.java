@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Caps the number of requests in flight with a limit found by additive increase and
+ * multiplicative decrease: every request that completes within the latency target raises
+ * the limit by {@code 1 / limit}, about one per limit's worth of requests, and a slower one
+ * cuts it by {@value #BACKOFF}, at most once per target interval so that one burst of slow
+ * requests is a single cut. The limit therefore settles where requests just stop queueing.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecrease = new AtomicLong();
+    private final double minLimit;
+    private final double maxLimit;
+    private final long targetNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long targetNanos) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit || targetNanos <= 0) {
+            throw new IllegalArgumentException("Недопустимые параметры лимита параллельности: initial=" + initialLimit
+                    + ", min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetNanos;
+        this.lastDecrease.set(System.nanoTime() - targetNanos);
+    }
+
+    /**
+     * Takes a slot; a caller that gets one must {@link #release(long) release} it.
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > (int) limit()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos <= targetNanos) {
+            update(limit -> Math.min(maxLimit, limit + 1 / limit));
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastDecrease.get();
+        if (now - last >= targetNanos && lastDecrease.compareAndSet(last, now)) {
+            update(limit -> Math.max(minLimit, limit * BACKOFF));
+        }
+    }
+
+    public double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator function) {
+        while (true) {
+            long bits = limitBits.get();
+            long updated = Double.doubleToLongBits(function.applyAsDouble(Double.longBitsToDouble(bits)));
+            if (bits == updated || limitBits.compareAndSet(bits, updated)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.limit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client. The whole state of a bucket is one long, the time of its last
+ * refill in milliseconds in the high bits and its milli-tokens in the low {@value #TOKEN_BITS}
+ * bits, so taking a token is a compare-and-set without locks or allocation.
+ * <p>
+ * A bucket that has refilled to capacity is indistinguishable from a new one, so idle
+ * clients are dropped by {@link #evictIdle()}. When {@code maxClients} are tracked, new
+ * clients share one overflow bucket until idle ones are evicted.
+ */
+public class TokenBuckets {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow;
+    private final long capacity;
+    private final long refillPerMilli;
+    private final int maxClients;
+    private final LongSupplier clock;
+
+    /**
+     * @param ratePerSecond tokens added per second
+     * @param burst         bucket capacity in tokens, at most 16 000
+     * @param clock         current time in milliseconds, non-decreasing
+     */
+    public TokenBuckets(int ratePerSecond, int burst, int maxClients, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst <= 0 || burst * MILLI > TOKEN_MASK || maxClients <= 0) {
+            throw new IllegalArgumentException("Недопустимые параметры ограничителя: rate=" + ratePerSecond
+                    + ", burst=" + burst + ", max-clients=" + maxClients);
+        }
+        this.capacity = burst * MILLI;
+        // Tokens per second are milli-tokens per millisecond.
+        this.refillPerMilli = ratePerSecond;
+        this.maxClients = maxClients;
+        this.clock = clock;
+        this.overflow = new AtomicLong(pack(clock.getAsLong(), capacity));
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     *
+     * @return 0 when a token was taken, otherwise milliseconds until one is available
+     */
+    public long tryAcquire(String client) {
+        AtomicLong bucket = buckets.get(client);
+        long now = clock.getAsLong();
+        if (bucket == null) {
+            bucket = buckets.size() < maxClients
+                    ? buckets.computeIfAbsent(client, key -> new AtomicLong(pack(now, capacity)))
+                    : overflow;
+        }
+        while (true) {
+            long state = bucket.get();
+            long tokens = refilled(state, now);
+            if (tokens < MILLI) {
+                return (MILLI - tokens + refillPerMilli - 1) / refillPerMilli;
+            }
+            if (bucket.compareAndSet(state, pack(Math.max(now, time(state)), tokens - MILLI))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled to capacity. A client that takes a token at the
+     * same moment may get it for free.
+     *
+     * @return the number of buckets dropped
+     */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> refilled(bucket.get(), now) == capacity);
+        return before - buckets.size();
+    }
+
+    public int clients() {
+        return buckets.size();
+    }
+
+    private long refilled(long state, long now) {
+        long elapsed = Math.max(now - time(state), 0);
+        long tokens = state & TOKEN_MASK;
+        return elapsed >= capacity / refillPerMilli + 1 ? capacity : Math.min(capacity, tokens + elapsed * refillPerMilli);
+    }
+
+    private static long time(long state) {
+        return state >>> TOKEN_BITS;
+    }
+
+    private static long pack(long time, long tokens) {
+        return time << TOKEN_BITS | tokens;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.limit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Applies {@link WriteLimits} to servlet requests before they reach the controllers.
+ */
+@Component
+@Order(WriteLimits.FILTER_ORDER)
+@ConditionalOnProperty(name = "filmorate.limits.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class WriteLimitServletFilter extends OncePerRequestFilter {
+
+    private final WriteLimits limits;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limits.applies(request.getMethod(), request.getRequestURI())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String client = limits.client(request.getHeader(limits.clientHeader()), request.getRemoteAddr());
+        long retryAfter = limits.tryAcquireToken(client);
+        if (retryAfter > 0) {
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, WriteLimits.TOO_MANY_REQUESTS, retryAfter);
+            return;
+        }
+        if (!limits.tryAcquireSlot()) {
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, WriteLimits.OVERLOADED, 1);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limits.releaseSlot(start);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message,
+                        long retryAfter) throws IOException {
+        byte[] body = limits.errorBody(status, message, request.getRequestURI());
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.limit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux counterpart of {@link WriteLimitServletFilter}.
+ */
+@Component
+@Order(WriteLimits.FILTER_ORDER)
+@ConditionalOnProperty(name = "filmorate.limits.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class WriteLimitWebFilter implements WebFilter {
+
+    private final WriteLimits limits;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!limits.applies(request.getMethodValue(), request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        String client = limits.client(request.getHeaders().getFirst(limits.clientHeader()),
+                remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress());
+        long retryAfter = limits.tryAcquireToken(client);
+        if (retryAfter > 0) {
+            return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, WriteLimits.TOO_MANY_REQUESTS, retryAfter);
+        }
+        if (!limits.tryAcquireSlot()) {
+            return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, WriteLimits.OVERLOADED, 1);
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> limits.releaseSlot(start));
+        });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, String message, long retryAfter) {
+        ServerHttpResponse response = exchange.getResponse();
+        byte[] body = limits.errorBody(status, message, exchange.getRequest().getPath().value());
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.limit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.replication.Replication;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control for writes to {@code /films} and {@code /users}: a token bucket per
+ * client (429 when empty) and an adaptive cap on writes in flight (503 when reached). Reads
+ * are never limited; shedding excess writes early is what keeps their latency down.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.limits.enabled", havingValue = "true", matchIfMissing = true)
+public class WriteLimits {
+
+    public static final String TOO_MANY_REQUESTS = "Слишком много запросов на запись, повторите позже";
+    public static final String OVERLOADED = "Сервер перегружен записью, повторите позже";
+    /**
+     * After replication: a follower redirects writes to the leader, which limits them.
+     */
+    public static final int FILTER_ORDER = Replication.FILTER_ORDER + 1;
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final TokenBuckets buckets;
+    private final AdaptiveConcurrencyLimit concurrency;
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final ObjectMapper objectMapper;
+    private final Counter rateRejections;
+    private final Counter concurrencyRejections;
+
+    public WriteLimits(MeterRegistry registry, ObjectMapper objectMapper,
+                       @Value("${filmorate.limits.rate:100}") int rate,
+                       @Value("${filmorate.limits.burst:200}") int burst,
+                       @Value("${filmorate.limits.max-clients:100000}") int maxClients,
+                       @Value("${filmorate.limits.client-header:X-Api-Key}") String clientHeader,
+                       @Value("${filmorate.limits.api-keys:}") String apiKeys,
+                       @Value("${filmorate.limits.concurrency.initial:16}") int initialConcurrency,
+                       @Value("${filmorate.limits.concurrency.min:2}") int minConcurrency,
+                       @Value("${filmorate.limits.concurrency.max:256}") int maxConcurrency,
+                       @Value("${filmorate.limits.concurrency.latency-target:PT0.02S}") Duration latencyTarget) {
+        long origin = System.nanoTime();
+        this.buckets = new TokenBuckets(rate, burst, maxClients, () -> (System.nanoTime() - origin) / 1_000_000);
+        this.concurrency = new AdaptiveConcurrencyLimit(initialConcurrency, minConcurrency, maxConcurrency,
+                latencyTarget.toNanos());
+        this.clientHeader = clientHeader;
+        this.apiKeys = Arrays.stream(apiKeys.split(","))
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.objectMapper = objectMapper;
+        rateRejections = Counter.builder("filmorate.limits.rejected").tag("reason", "rate").register(registry);
+        concurrencyRejections = Counter.builder("filmorate.limits.rejected").tag("reason", "concurrency")
+                .register(registry);
+        Gauge.builder("filmorate.limits.concurrency", concurrency, AdaptiveConcurrencyLimit::limit)
+                .register(registry);
+        Gauge.builder("filmorate.limits.in.flight", concurrency, AdaptiveConcurrencyLimit::inFlight)
+                .register(registry);
+        Gauge.builder("filmorate.limits.clients", buckets, TokenBuckets::clients)
+                .register(registry);
+    }
+
+    public boolean applies(String method, String path) {
+        return !READ_METHODS.contains(method) && (path.startsWith("/films") || path.startsWith("/users"));
+    }
+
+    public String clientHeader() {
+        return clientHeader;
+    }
+
+    /**
+     * The API key when it is one of {@code filmorate.limits.api-keys}, otherwise the remote
+     * address. Any other key is ignored: a client could send a new one with every request
+     * to get a fresh bucket, and fill the table so that real clients share the overflow one.
+     */
+    public String client(String apiKey, String remoteAddress) {
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return remoteAddress == null ? "" : remoteAddress;
+    }
+
+    /**
+     * @return 0 when the client may write, otherwise seconds to wait
+     */
+    public long tryAcquireToken(String client) {
+        long waitMillis = buckets.tryAcquire(client);
+        if (waitMillis == 0) {
+            return 0;
+        }
+        rateRejections.increment();
+        return Math.max(1, (waitMillis + 999) / 1000);
+    }
+
+    public boolean tryAcquireSlot() {
+        if (concurrency.tryAcquire()) {
+            return true;
+        }
+        concurrencyRejections.increment();
+        return false;
+    }
+
+    public void releaseSlot(long startNanos) {
+        concurrency.release(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Body of a rejection in the shape of the usual error responses. It is written by the
+     * filter itself: going through the error controller would cost a rejected request
+     * about as much as an accepted one.
+     */
+    public byte[] errorBody(HttpStatus status, String message, String path) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", OffsetDateTime.now().toString());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", path);
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.limits.idle-sweep-interval:PT1M}",
+            initialDelayString = "${filmorate.limits.idle-sweep-interval:PT1M}")
+    public void evictIdle() {
+        int evicted = buckets.evictIdle();
+        if (evicted > 0) {
+            log.debug("Удалено {} неактивных клиентов ограничителя запросов", evicted);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Success lines of the write endpoints, one per request and sampled per endpoint: a request
+ * is logged with probability {@code filmorate.logging.sample.<endpoint>}, falling back to
+ * {@code filmorate.logging.sample.default}. Nothing is formatted or allocated for requests
+ * that are not sampled. The fields go out as key=value in plain text and as separate JSON
+ * fields with the {@code json-logs} profile. Failures are not sampled; callers log them as
+ * before.
+ */
+@Slf4j
+@Component
+public class RequestLog {
+
+    public enum Endpoint {
+        FILMS_CREATE("films.create", "Фильм добавлен: {} {} {}"),
+        FILMS_UPDATE("films.update", "Фильм обновлён: {} {} {}"),
+        FILMS_BATCH("films.batch", "Пакет фильмов добавлен: {} {}"),
+        USERS_CREATE("users.create", "Пользователь добавлен: {} {} {}"),
+        USERS_UPDATE("users.update", "Пользователь обновлён: {} {} {}"),
+        USERS_BATCH("users.batch", "Пакет пользователей добавлен: {} {}");
+
+        private final String key;
+        private final String message;
+
+        Endpoint(String key, String message) {
+            this.key = key;
+            this.message = message;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    private final double[] rates = new double[Endpoint.values().length];
+
+    public RequestLog(Environment environment) {
+        double fallback = rate(environment, "default", 1.0);
+        for (Endpoint endpoint : Endpoint.values()) {
+            rates[endpoint.ordinal()] = rate(environment, endpoint.key, fallback);
+        }
+    }
+
+    public double rate(Endpoint endpoint) {
+        return rates[endpoint.ordinal()];
+    }
+
+    public void saved(Endpoint endpoint, int id, Long version) {
+        if (sampled(endpoint)) {
+            log.info(endpoint.message, kv("endpoint", endpoint.key), kv("id", id), kv("version", version));
+        }
+    }
+
+    public void batchSaved(Endpoint endpoint, int count) {
+        if (sampled(endpoint)) {
+            log.info(endpoint.message, kv("endpoint", endpoint.key), kv("count", count));
+        }
+    }
+
+    private boolean sampled(Endpoint endpoint) {
+        double rate = rates[endpoint.ordinal()];
+        return rate > 0 && log.isInfoEnabled() && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static double rate(Environment environment, String key, double fallback) {
+        double rate = environment.getProperty("filmorate.logging.sample." + key, Double.class, fallback);
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Доля логируемых запросов filmorate.logging.sample." + key
+                    + " должна быть от 0 до 1: " + rate);
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.Iterator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Meters of the controller hot paths. All of them are registered once at startup, so
+ * recording costs a field read and an atomic update, without tag lookups per call.
+ * Gauges are computed only when the registry is scraped.
+ */
+@Component
+public class FilmorateMetrics {
+
+    private static final int HEAP_SAMPLE = 256;
+    private static final String OPERATION = "filmorate.operation";
+    private static final String VALIDATION_FAILURES = "filmorate.validation.failures";
+
+    private final Timer filmCreate;
+    private final Timer filmUpdate;
+    private final Timer filmGetAll;
+    private final Timer userCreate;
+    private final Timer userUpdate;
+    private final Timer userGetAll;
+    private final Counter filmValidationFailures;
+    private final Counter userValidationFailures;
+    private final Counter otherValidationFailures;
+
+    public FilmorateMetrics(MeterRegistry registry, FilmStorage filmStorage, UserStorage userStorage) {
+        filmCreate = timer(registry, "film.create");
+        filmUpdate = timer(registry, "film.update");
+        filmGetAll = timer(registry, "film.getAll");
+        userCreate = timer(registry, "user.create");
+        userUpdate = timer(registry, "user.update");
+        userGetAll = timer(registry, "user.getAll");
+        filmValidationFailures = Counter.builder(VALIDATION_FAILURES).tag("entity", "film").register(registry);
+        userValidationFailures = Counter.builder(VALIDATION_FAILURES).tag("entity", "user").register(registry);
+        otherValidationFailures = Counter.builder(VALIDATION_FAILURES).tag("entity", "other").register(registry);
+        Gauge.builder("filmorate.entities", filmStorage, FilmStorage::count)
+                .tag("entity", "film")
+                .register(registry);
+        Gauge.builder("filmorate.entities", userStorage, UserStorage::count)
+                .tag("entity", "user")
+                .register(registry);
+        Gauge.builder("filmorate.entity.heap.estimate", filmStorage,
+                        storage -> averageBytes(storage.findAll().iterator(), HeapEstimator::filmBytes))
+                .tag("entity", "film")
+                .baseUnit("bytes")
+                .description("Estimated heap per stored entity, averaged over a sample")
+                .register(registry);
+        Gauge.builder("filmorate.entity.heap.estimate", userStorage,
+                        storage -> averageBytes(storage.findAll().iterator(), HeapEstimator::userBytes))
+                .tag("entity", "user")
+                .baseUnit("bytes")
+                .description("Estimated heap per stored entity, averaged over a sample")
+                .register(registry);
+    }
+
+    public Timer filmCreate() {
+        return filmCreate;
+    }
+
+    public Timer filmUpdate() {
+        return filmUpdate;
+    }
+
+    public Timer filmGetAll() {
+        return filmGetAll;
+    }
+
+    public Timer userCreate() {
+        return userCreate;
+    }
+
+    public Timer userUpdate() {
+        return userUpdate;
+    }
+
+    public Timer userGetAll() {
+        return userGetAll;
+    }
+
+    public Counter filmValidationFailures() {
+        return filmValidationFailures;
+    }
+
+    public Counter userValidationFailures() {
+        return userValidationFailures;
+    }
+
+    public Counter otherValidationFailures() {
+        return otherValidationFailures;
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder(OPERATION).tag("operation", operation).register(registry);
+    }
+
+    private static <T> double averageBytes(Iterator<T> entities, ToLongFunction<T> estimate) {
+        long total = 0;
+        int sampled = 0;
+        while (sampled < HEAP_SAMPLE && entities.hasNext()) {
+            total += estimate.applyAsLong(entities.next());
+            sampled++;
+        }
+        return sampled == 0 ? 0 : (double) total / sampled;
+    }
+}
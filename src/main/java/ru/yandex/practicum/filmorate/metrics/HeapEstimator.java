@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+/**
+ * Rough retained size of stored entities on a 64-bit JVM with compressed oops and
+ * compact strings, including the skip list node that holds the entity.
+ */
+final class HeapEstimator {
+
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    private static final int INTEGER = 16;
+    private static final int LONG = 16;
+    private static final int LOCAL_DATE = 24;
+    private static final int SKIP_LIST_ENTRY = 32;
+    private static final int ENTITY = align(HEADER + 6 * REFERENCE);
+
+    private HeapEstimator() {
+    }
+
+    static long filmBytes(Film film) {
+        return SKIP_LIST_ENTRY + ENTITY + INTEGER + stringBytes(film.getName()) + stringBytes(film.getDescription())
+                + (film.getReleaseDate() == null ? 0 : LOCAL_DATE) + (film.getDuration() == null ? 0 : INTEGER)
+                + (film.getVersion() == null ? 0 : LONG);
+    }
+
+    static long userBytes(User user) {
+        return SKIP_LIST_ENTRY + ENTITY + INTEGER + stringBytes(user.getEmail()) + stringBytes(user.getLogin())
+                + stringBytes(user.getName()) + (user.getBirthday() == null ? 0 : LOCAL_DATE)
+                + (user.getVersion() == null ? 0 : LONG);
+    }
+
+    static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return align(HEADER + 2 * REFERENCE + 4) + align(ARRAY_HEADER + (long) value.length() * bytesPerChar);
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
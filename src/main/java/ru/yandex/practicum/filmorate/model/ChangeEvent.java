@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ChangeEvent {
+
+    public static final String FILM_CREATED = "film.created";
+    public static final String FILM_UPDATED = "film.updated";
+    public static final String USER_CREATED = "user.created";
+    public static final String USER_UPDATED = "user.updated";
+    public static final String LIKE_ADDED = "like.added";
+    public static final String LIKE_REMOVED = "like.removed";
+    public static final String FRIEND_ADDED = "friend.added";
+    public static final String FRIEND_REMOVED = "friend.removed";
+
+    private long sequence;
+    private String type;
+    private Object data;
+    /**
+     * Milliseconds since the epoch when the change was published.
+     */
+    private long time;
+}
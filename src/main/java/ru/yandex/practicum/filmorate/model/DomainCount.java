@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Users with an email at the domain, as estimated by a count-min sketch: never fewer than
+ * the actual number.
+ */
+@Data
+@AllArgsConstructor
+public class DomainCount {
+
+    private String domain;
+    private long users;
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Film durations in minutes. Percentiles are exact up to 1023 minutes and within 1.6% above.
+ */
+@Data
+@AllArgsConstructor
+public class DurationStats {
+
+    private double mean;
+    private long p50;
+    private long p90;
+    private long p99;
+    private List<HistogramBin> histogram;
+}
@@ -20,6 +20,11 @@ public class Film {
     @NotNull(message = "Ошибка при создании фильма: продолжительность фильма не может быть пустой")
     @Min(1)
     private Integer duration;
+    /**
+     * Grows with every update. A PUT that carries a version, in the body or as If-Match,
+     * only applies when it equals the stored one.
+     */
+    private Long version;
 
     public Film(Integer id, String name, String description, LocalDate releaseDate, Integer duration) {
         this.id = id;
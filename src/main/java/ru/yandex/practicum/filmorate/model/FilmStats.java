@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.SortedMap;
+
+@Data
+@AllArgsConstructor
+public class FilmStats {
+
+    private long films;
+    private SortedMap<Integer, Long> byReleaseYear;
+    private DurationStats duration;
+}
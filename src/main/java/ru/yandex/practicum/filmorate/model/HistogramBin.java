@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Values in [from, to); {@code to} is null for the last, open-ended bin.
+ */
+@Data
+@AllArgsConstructor
+public class HistogramBin {
+
+    private long from;
+    private Long to;
+    private long count;
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ImportResult {
+
+    private long read;
+    private long imported;
+    /**
+     * Already present with the same or a newer version.
+     */
+    private long unchanged;
+    private long rejected;
+    /**
+     * The first rejected records, by position in the file.
+     */
+    private List<ItemError> errors;
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Changes after the position a follower asked for. {@code epoch} identifies the run of the
+ * node that numbered them; {@code sequence} is the last change that node has.
+ */
+@Data
+@AllArgsConstructor
+public class ReplicationBatch {
+
+    private long epoch;
+    private long sequence;
+    private List<ChangeEvent> events;
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Full state of a node. It contains at least every change up to {@code sequence} and may
+ * contain some later ones, which a follower then applies again.
+ */
+@Data
+@AllArgsConstructor
+public class ReplicationSnapshot {
+
+    private long epoch;
+    private long sequence;
+    private List<Film> films;
+    private List<User> users;
+    private List<Like> likes;
+    private List<Friendship> friendships;
+}
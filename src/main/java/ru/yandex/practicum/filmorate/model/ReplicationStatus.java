@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReplicationStatus {
+
+    private String role;
+    private long epoch;
+    /**
+     * Last change of the leader applied here, in the leader's numbering.
+     */
+    private long sequence;
+    private long leaderSequence;
+    private long lagEvents;
+    private long applied;
+    private long snapshots;
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SearchIndexStats {
+
+    private long films;
+    private long terms;
+    private long postings;
+    private long estimatedBytes;
+}
@@ -18,6 +18,11 @@ public class User {
     @NotNull(message = "Ошибка при создании пользователя: дата рождения пользователя не может быть пустой")
     @PastOrPresent
     private LocalDate birthday;
+    /**
+     * Grows with every update. A PUT that carries a version, in the body or as If-Match,
+     * only applies when it equals the stored one.
+     */
+    private Long version;
 
     public User(Integer id, String email, String login, String name, LocalDate birthday) {
         this.id = id;
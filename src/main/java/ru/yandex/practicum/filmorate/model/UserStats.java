@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.SortedMap;
+
+@Data
+@AllArgsConstructor
+public class UserStats {
+
+    private long users;
+    private SortedMap<Integer, Long> byBirthYear;
+    private List<DomainCount> topEmailDomains;
+}
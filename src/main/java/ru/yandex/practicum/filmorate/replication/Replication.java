@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import org.springframework.core.Ordered;
+
+import java.util.Set;
+
+/**
+ * Names shared by the leader and follower sides.
+ */
+public final class Replication {
+
+    public static final String ROLE = "filmorate.replication.role";
+    public static final String LEADER = "leader";
+    public static final String FOLLOWER = "follower";
+
+    /**
+     * Order of the replication filters: right after the framework's own, so a follower
+     * redirects a write before anything else spends work on it.
+     */
+    public static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    /**
+     * Response header with the position of the node's data in the leader's change log.
+     * A client that sends it back as {@link #MIN_SEQUENCE_HEADER} reads its own writes.
+     */
+    public static final String SEQUENCE_HEADER = "Filmorate-Sequence";
+    public static final String MIN_SEQUENCE_HEADER = "Filmorate-Min-Sequence";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private Replication() {
+    }
+
+    /**
+     * Requests every node answers itself: replication, monitoring and the event stream.
+     */
+    static boolean isLocal(String path) {
+        return path.startsWith("/replication") || path.startsWith("/actuator") || path.startsWith("/events");
+    }
+
+    static boolean isRead(String method) {
+        return READ_METHODS.contains(method);
+    }
+
+    /**
+     * The value of {@link #MIN_SEQUENCE_HEADER}, or 0 when it is absent or not a number.
+     */
+    static long minSequence(String header) {
+        if (header == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static String leaderLocation(String leaderUrl, String path, String query) {
+        String base = leaderUrl.endsWith("/") ? leaderUrl.substring(0, leaderUrl.length() - 1) : leaderUrl;
+        return query == null || query.isEmpty() ? base + path : base + path + "?" + query;
+    }
+}
@@ -0,0 +1,264 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.ReplicationBatch;
+import ru.yandex.practicum.filmorate.model.ReplicationSnapshot;
+import ru.yandex.practicum.filmorate.model.ReplicationStatus;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this node a copy of the leader. One thread long-polls the leader's change log and
+ * applies the changes in order through the services, so indexes and the local event stream
+ * follow as on the leader. A follower that starts, or finds that the leader restarted or
+ * dropped changes it has not seen yet, first loads the leader's snapshot and then continues
+ * from the snapshot's position. Until the first snapshot is loaded the node sends reads to
+ * the leader.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = Replication.ROLE, havingValue = Replication.FOLLOWER)
+public class ReplicationFollower {
+
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final String leaderUrl;
+    private final int batchSize;
+    private final Duration pollWait;
+    private final Duration readWait;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Sinks.Many<Long> appliedSequences = Sinks.many().multicast().directBestEffort();
+    private final Timer delay;
+    private final Counter applied;
+    private final Counter snapshots;
+    private volatile long epoch;
+    private volatile long sequence;
+    private volatile long leaderSequence;
+    private volatile boolean synced;
+    private volatile Thread thread;
+
+    public ReplicationFollower(FilmService filmService, UserService userService, ObjectMapper objectMapper,
+                               MeterRegistry registry,
+                               @Value("${filmorate.replication.leader-url}") String leaderUrl,
+                               @Value("${filmorate.replication.batch-size:1000}") int batchSize,
+                               @Value("${filmorate.replication.poll-wait:PT10S}") Duration pollWait,
+                               @Value("${filmorate.replication.read-wait:PT1S}") Duration readWait) {
+        this.filmService = filmService;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.leaderUrl = leaderUrl;
+        this.batchSize = batchSize;
+        this.pollWait = pollWait;
+        this.readWait = readWait;
+        delay = Timer.builder("filmorate.replication.delay")
+                .description("Time from a change on the leader to its application on this follower")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        applied = Counter.builder("filmorate.replication.applied").register(registry);
+        snapshots = Counter.builder("filmorate.replication.snapshots").register(registry);
+        Gauge.builder("filmorate.replication.lag", this, follower -> follower.leaderSequence - follower.sequence)
+                .baseUnit("events")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread follower = new Thread(this::run, "replication-follower");
+        follower.setDaemon(true);
+        thread = follower;
+        follower.start();
+        log.info("Реплика следует за лидером {}", leaderUrl);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread follower = thread;
+        thread = null;
+        if (follower != null) {
+            follower.interrupt();
+        }
+    }
+
+    public String leaderUrl() {
+        return leaderUrl;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Whether the node holds a copy of the leader's state, possibly behind.
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Completes with true once the node is synced and changes up to {@code required} are
+     * applied, or with false after {@code filmorate.replication.read-wait}.
+     */
+    public Mono<Boolean> awaitSequence(long required) {
+        if (hasApplied(required)) {
+            return Mono.just(true);
+        }
+        return Flux.merge(appliedSequences.asFlux(), Mono.fromCallable(() -> sequence))
+                .filter(ignored -> hasApplied(required))
+                .next()
+                .map(ignored -> true)
+                .timeout(readWait, Mono.just(false));
+    }
+
+    public ReplicationStatus status() {
+        long current = sequence;
+        return new ReplicationStatus(Replication.FOLLOWER, epoch, current, leaderSequence,
+                Math.max(leaderSequence - current, 0), (long) applied.count(), (long) snapshots.count());
+    }
+
+    private boolean hasApplied(long required) {
+        return synced && sequence >= required;
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (thread == Thread.currentThread()) {
+            try {
+                ReplicationBatch batch = get("/replication/log?epoch=" + epoch + "&after=" + sequence
+                                + "&limit=" + batchSize + "&wait=" + pollWait.toMillis(),
+                        pollWait.plusSeconds(10), ReplicationBatch.class);
+                if (batch.getEpoch() != epoch || missesChanges(batch)) {
+                    loadSnapshot();
+                } else {
+                    apply(batch);
+                }
+                backoff = MIN_BACKOFF_MILLIS;
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Не удалось получить изменения от лидера {}: {}", leaderUrl, e.toString());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private boolean missesChanges(ReplicationBatch batch) {
+        List<ChangeEvent> events = batch.getEvents();
+        return !events.isEmpty() && events.get(0).getSequence() != sequence + 1 || batch.getSequence() < sequence;
+    }
+
+    private void apply(ReplicationBatch batch) {
+        for (ChangeEvent event : batch.getEvents()) {
+            apply(event);
+            sequence = event.getSequence();
+            delay.record(Math.max(System.currentTimeMillis() - event.getTime(), 0), TimeUnit.MILLISECONDS);
+            applied.increment();
+        }
+        leaderSequence = Math.max(batch.getSequence(), sequence);
+        if (!batch.getEvents().isEmpty()) {
+            appliedSequences.tryEmitNext(sequence);
+        }
+    }
+
+    private void apply(ChangeEvent event) {
+        switch (event.getType()) {
+            case ChangeEvent.FILM_CREATED:
+            case ChangeEvent.FILM_UPDATED:
+                filmService.replicate(objectMapper.convertValue(event.getData(), Film.class));
+                break;
+            case ChangeEvent.USER_CREATED:
+            case ChangeEvent.USER_UPDATED:
+                userService.replicate(objectMapper.convertValue(event.getData(), User.class));
+                break;
+            case ChangeEvent.LIKE_ADDED:
+            case ChangeEvent.LIKE_REMOVED:
+                filmService.replicateLike(objectMapper.convertValue(event.getData(), Like.class),
+                        ChangeEvent.LIKE_ADDED.equals(event.getType()));
+                break;
+            case ChangeEvent.FRIEND_ADDED:
+            case ChangeEvent.FRIEND_REMOVED:
+                userService.replicateFriendship(objectMapper.convertValue(event.getData(), Friendship.class),
+                        ChangeEvent.FRIEND_ADDED.equals(event.getType()));
+                break;
+            default:
+                log.warn("Неизвестный тип изменения {} пропущен", event.getType());
+        }
+    }
+
+    private void loadSnapshot() throws IOException, InterruptedException {
+        synced = false;
+        log.info("Загружаем снимок данных лидера {}...", leaderUrl);
+        ReplicationSnapshot snapshot = get("/replication/snapshot", null, ReplicationSnapshot.class);
+        filmService.clear();
+        userService.clear();
+        for (User user : snapshot.getUsers()) {
+            userService.replicate(user);
+        }
+        for (Film film : snapshot.getFilms()) {
+            filmService.replicate(film);
+        }
+        for (Friendship friendship : snapshot.getFriendships()) {
+            userService.replicateFriendship(friendship, true);
+        }
+        for (Like like : snapshot.getLikes()) {
+            filmService.replicateLike(like, true);
+        }
+        epoch = snapshot.getEpoch();
+        sequence = snapshot.getSequence();
+        leaderSequence = snapshot.getSequence();
+        snapshots.increment();
+        synced = true;
+        appliedSequences.tryEmitNext(sequence);
+        log.info("Снимок загружен: {} фильмов, {} пользователей, позиция {}",
+                snapshot.getFilms().size(), snapshot.getUsers().size(), sequence);
+    }
+
+    private <T> T get(String path, Duration timeout, Class<T> type) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(Replication.leaderLocation(leaderUrl, path, null)))
+                .header("Accept", "application/json");
+        if (timeout != null) {
+            request.timeout(timeout);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + path + " вернул код " + response.statusCode());
+        }
+        return objectMapper.readValue(response.body(), type);
+    }
+}
@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Optional;
+
+/**
+ * On the leader, stamps responses with the log position reached when the response is
+ * committed, which covers the request's own write. On a follower, answers reads locally
+ * once the requested position is applied and sends writes, and reads it cannot serve in
+ * time, to the leader with a 307 redirect, which keeps the method and body.
+ */
+@Component
+@ConditionalOnProperty(name = Replication.ROLE)
+@Order(Replication.FILTER_ORDER)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class ReplicationServletFilter extends OncePerRequestFilter {
+
+    private final ReplicationSource source;
+    private final Optional<ReplicationFollower> follower;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (Replication.isLocal(request.getRequestURI())) {
+            chain.doFilter(request, response);
+        } else if (follower.isEmpty()) {
+            SequenceStamping stamping = new SequenceStamping(response);
+            chain.doFilter(request, stamping);
+            stamping.stamp();
+        } else {
+            follow(follower.get(), request, response, chain);
+        }
+    }
+
+    private void follow(ReplicationFollower follower, HttpServletRequest request, HttpServletResponse response,
+                        FilterChain chain) throws ServletException, IOException {
+        if (Replication.isRead(request.getMethod())) {
+            long required = Replication.minSequence(request.getHeader(Replication.MIN_SEQUENCE_HEADER));
+            if (Boolean.TRUE.equals(follower.awaitSequence(required).block())) {
+                response.setHeader(Replication.SEQUENCE_HEADER, String.valueOf(follower.sequence()));
+                chain.doFilter(request, response);
+                return;
+            }
+        }
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, Replication.leaderLocation(follower.leaderUrl(),
+                request.getRequestURI(), request.getQueryString()));
+    }
+
+    /**
+     * Sets the header right before anything is written, when the handler has already run,
+     * or after the chain for responses without a body.
+     */
+    private final class SequenceStamping extends HttpServletResponseWrapper {
+
+        private boolean stamped;
+
+        SequenceStamping(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            stamp();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            stamp();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            stamp();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            stamp();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            stamp();
+            super.sendError(sc);
+        }
+
+        private void stamp() {
+            if (!stamped && !isCommitted()) {
+                stamped = true;
+                setHeader(Replication.SEQUENCE_HEADER, String.valueOf(source.sequence()));
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.event.ChangeEventLog;
+import ru.yandex.practicum.filmorate.model.ReplicationBatch;
+import ru.yandex.practicum.filmorate.model.ReplicationSnapshot;
+import ru.yandex.practicum.filmorate.model.ReplicationStatus;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves this node's change log and state to followers. The log is the
+ * {@link ChangeEventLog}; its numbering starts over when the node restarts, which the
+ * random epoch tells followers.
+ */
+@Component
+@ConditionalOnProperty(name = Replication.ROLE)
+@RequiredArgsConstructor
+public class ReplicationSource {
+
+    private static final int MAX_BATCH = 10_000;
+    private static final long MAX_WAIT_MILLIS = 30_000;
+
+    private final ChangeEventLog changeEventLog;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final long epoch = new SecureRandom().nextLong() & Long.MAX_VALUE;
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public long sequence() {
+        return changeEventLog.lastSequence();
+    }
+
+    public ReplicationStatus status() {
+        long sequence = changeEventLog.lastSequence();
+        return new ReplicationStatus(Replication.LEADER, epoch, sequence, sequence, 0, 0, 0);
+    }
+
+    /**
+     * Up to {@code limit} changes after {@code after}. When there are none yet the answer
+     * waits for the next change, at most {@code waitMillis}, and is empty if none comes.
+     * A follower that knows another epoch gets an empty answer at once.
+     */
+    public Mono<ReplicationBatch> read(long knownEpoch, long after, int limit, long waitMillis) {
+        int size = Math.max(1, Math.min(limit, MAX_BATCH));
+        if (knownEpoch != epoch) {
+            return Mono.just(new ReplicationBatch(epoch, changeEventLog.lastSequence(), List.of()));
+        }
+        Duration wait = Duration.ofMillis(Math.max(0, Math.min(waitMillis, MAX_WAIT_MILLIS)));
+        // Subscribe before reading the position, so a change published in between still wakes us up.
+        return Flux.merge(changeEventLog.published(), Mono.fromCallable(changeEventLog::lastSequence))
+                .filter(sequence -> sequence > after)
+                .next()
+                .timeout(wait, Mono.just(after))
+                .map(ignored -> new ReplicationBatch(epoch, changeEventLog.lastSequence(),
+                        changeEventLog.readAfter(after, size)));
+    }
+
+    /**
+     * The position is taken before the state is read, so replaying the log from it on top
+     * of the snapshot brings a follower to the state of this node.
+     */
+    public ReplicationSnapshot snapshot() {
+        long sequence = changeEventLog.lastSequence();
+        return new ReplicationSnapshot(epoch, sequence, new ArrayList<>(filmStorage.findAll()),
+                new ArrayList<>(userStorage.findAll()), filmService.findAllLikes(), userService.findAllFriendships());
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Optional;
+
+/**
+ * WebFlux counterpart of {@link ReplicationServletFilter}.
+ */
+@Component
+@ConditionalOnProperty(name = Replication.ROLE)
+@Order(Replication.FILTER_ORDER)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReplicationWebFilter implements WebFilter {
+
+    private final ReplicationSource source;
+    private final Optional<ReplicationFollower> follower;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        if (Replication.isLocal(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+        if (follower.isEmpty()) {
+            response.beforeCommit(() -> {
+                response.getHeaders().set(Replication.SEQUENCE_HEADER, String.valueOf(source.sequence()));
+                return Mono.empty();
+            });
+            return chain.filter(exchange);
+        }
+        ReplicationFollower node = follower.get();
+        Mono<Boolean> local = Replication.isRead(request.getMethodValue())
+                ? node.awaitSequence(Replication.minSequence(
+                request.getHeaders().getFirst(Replication.MIN_SEQUENCE_HEADER)))
+                : Mono.just(false);
+        return local.flatMap(served -> {
+            if (served) {
+                response.getHeaders().set(Replication.SEQUENCE_HEADER, String.valueOf(node.sequence()));
+                return chain.filter(exchange);
+            }
+            response.setStatusCode(HttpStatus.TEMPORARY_REDIRECT);
+            response.getHeaders().setLocation(URI.create(Replication.leaderLocation(node.leaderUrl(),
+                    request.getPath().value(), request.getURI().getRawQuery())));
+            return response.setComplete();
+        });
+    }
+}
@@ -0,0 +1,323 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.ChangeEventLog;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.ItemError;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.SearchIndexStats;
+import ru.yandex.practicum.filmorate.storage.FilmRecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.FilmReleaseIndex;
+import ru.yandex.practicum.filmorate.storage.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.FilmStatsIndex;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FilmService {
+
+    public static final int MAX_SEARCH_LIMIT = 100;
+    private static final int STRIPES = 64;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final FilmSearchIndex searchIndex;
+    private final FilmReleaseIndex releaseIndex;
+    private final FilmStatsIndex statsIndex;
+    private final FilmValidator filmValidator;
+    private final FilmRecommendationIndex recommendationIndex;
+    private final ChangeEventLog changeEventLog;
+    private final Object[] stripes = newStripes();
+    private final Object[] likeStripes = newStripes();
+
+    @PostConstruct
+    public void buildIndexes() {
+        for (Film film : filmStorage.findAll()) {
+            reindex(film.getId());
+        }
+    }
+
+    /**
+     * @throws ConflictException when the film carries the ID of an existing film: a create
+     *                           never replaces one, updates go through {@link #update}
+     */
+    public Film create(Film film) throws ValidationException {
+        checkFilm(film);
+        film.setVersion(null);
+        if (film.getId() == null) {
+            return insert(film);
+        }
+        synchronized (stripes[Math.floorMod(film.getId(), STRIPES)]) {
+            checkIdFree(film.getId());
+            return insert(film);
+        }
+    }
+
+    public Optional<Film> update(Film film) throws ValidationException {
+        checkFilm(film);
+        Optional<Film> updated = filmStorage.update(film);
+        updated.ifPresent(current -> {
+            reindex(current.getId());
+            changeEventLog.publish(ChangeEvent.FILM_UPDATED, current);
+        });
+        return updated;
+    }
+
+    public List<ItemError> validateAll(List<Film> films) {
+        List<ItemError> errors = new ArrayList<>();
+        Set<Integer> batchIds = new HashSet<>();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            if (film == null) {
+                errors.add(new ItemError(i, "Ошибка при создании фильма: фильм не может быть пустым"));
+                continue;
+            }
+            for (String error : filmValidator.validateAll(film)) {
+                errors.add(new ItemError(i, error));
+            }
+            if (film.getId() != null
+                    && (filmStorage.findById(film.getId()).isPresent() || !batchIds.add(film.getId()))) {
+                errors.add(new ItemError(i, "Фильм с ID " + film.getId() + " уже существует"));
+            }
+        }
+        return errors;
+    }
+
+    public List<Film> createAll(List<Film> films) {
+        for (Film film : films) {
+            if (film.getId() != null) {
+                checkIdFree(film.getId());
+            }
+            film.setVersion(null);
+        }
+        List<Film> created = filmStorage.createAll(films);
+        for (Film film : created) {
+            reindex(film.getId());
+            changeEventLog.publish(ChangeEvent.FILM_CREATED, film);
+        }
+        return created;
+    }
+
+    public List<Film> search(String query, int limit) {
+        List<Film> found = new ArrayList<>();
+        for (int filmId : searchIndex.search(query, limit)) {
+            filmStorage.findById(filmId).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    public Collection<Film> findFilms(Integer after, LocalDate from, LocalDate to) throws ValidationException {
+        if (from == null && to == null) {
+            return after == null ? filmStorage.findAll() : filmStorage.findAfter(after);
+        }
+        if (after != null) {
+            throw new ValidationException("Параметр after нельзя использовать вместе с from и to");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ValidationException("Параметр from не может быть позже to");
+        }
+        return findReleasedBetween(from, to);
+    }
+
+    public List<Film> findReleasedBetween(LocalDate from, LocalDate to) {
+        List<Film> found = new ArrayList<>();
+        for (int filmId : releaseIndex.findBetween(from, to)) {
+            filmStorage.findById(filmId).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    public SearchIndexStats getSearchIndexStats() {
+        return searchIndex.getStats();
+    }
+
+    public FilmStats getStats() {
+        return statsIndex.getStats();
+    }
+
+    public void addLike(int filmId, int userId) {
+        checkFilmAndUser(filmId, userId);
+        if (changeLike(filmId, userId, true)) {
+            log.info("Пользователь {} поставил лайк фильму {}", userId, filmId);
+        }
+    }
+
+    public void removeLike(int filmId, int userId) {
+        checkFilmAndUser(filmId, userId);
+        if (changeLike(filmId, userId, false)) {
+            log.info("Пользователь {} убрал лайк с фильма {}", userId, filmId);
+        }
+    }
+
+    public List<Film> getPopular(int count) {
+        List<Film> popular = new ArrayList<>(Math.min(count, 1024));
+        for (int filmId : likeStorage.findPopular(count)) {
+            filmStorage.findById(filmId).ifPresent(popular::add);
+        }
+        if (popular.size() < count) {
+            for (Film film : filmStorage.findAll()) {
+                if (popular.size() == count) {
+                    break;
+                }
+                if (likeStorage.countLikes(film.getId()) == 0) {
+                    popular.add(film);
+                }
+            }
+        }
+        return popular;
+    }
+
+    /**
+     * Films liked by the users whose likes overlap most with this user's.
+     */
+    public List<Film> getRecommendations(int userId, int count) {
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+        List<Film> recommended = new ArrayList<>();
+        for (int filmId : recommendationIndex.recommend(userId, count)) {
+            filmStorage.findById(filmId).ifPresent(recommended::add);
+        }
+        return recommended;
+    }
+
+    /**
+     * Stores a film received from the leader unless this node already has the same or a
+     * newer version of it. Replicated changes are applied by one thread.
+     *
+     * @return false when the film was already there
+     */
+    public boolean replicate(Film film) {
+        Optional<Film> current = filmStorage.findById(film.getId());
+        if (current.isPresent() && current.get().getVersion() != null
+                && film.getVersion() <= current.get().getVersion()) {
+            return false;
+        }
+        Film stored = filmStorage.create(film);
+        reindex(stored.getId());
+        changeEventLog.publish(current.isPresent() ? ChangeEvent.FILM_UPDATED : ChangeEvent.FILM_CREATED, stored);
+        return true;
+    }
+
+    /**
+     * Stores an imported film with its ID and version, as {@link #replicate} does, after
+     * validating it. Meant for loading a node: an update of the same film running at the
+     * same time may be lost.
+     *
+     * @return false when this node already has the same or a newer version
+     */
+    public boolean restore(Film film) throws ValidationException {
+        checkFilm(film);
+        if (film.getVersion() == null) {
+            film.setVersion(1L);
+        }
+        return replicate(film);
+    }
+
+    public void replicateLike(Like like, boolean added) {
+        changeLike(like.getFilmId(), like.getUserId(), added);
+    }
+
+    public List<Like> findAllLikes() {
+        List<Like> likes = new ArrayList<>();
+        for (Film film : filmStorage.findAll()) {
+            for (int userId : likeStorage.findLikes(film.getId())) {
+                likes.add(new Like(film.getId(), userId));
+            }
+        }
+        return likes;
+    }
+
+    public void clear() {
+        filmStorage.clear();
+        likeStorage.clear();
+        recommendationIndex.clear();
+        searchIndex.clear();
+        releaseIndex.clear();
+        statsIndex.clear();
+    }
+
+    private Film insert(Film film) {
+        Film created = filmStorage.create(film);
+        reindex(created.getId());
+        changeEventLog.publish(ChangeEvent.FILM_CREATED, created);
+        return created;
+    }
+
+    private void checkIdFree(int filmId) {
+        if (filmStorage.findById(filmId).isPresent()) {
+            throw new ConflictException("Фильм с ID " + filmId + " уже существует");
+        }
+    }
+
+    private static Object[] newStripes() {
+        Object[] stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        return stripes;
+    }
+
+    /**
+     * Publishes the change under the same lock as the storage update, so the events of one
+     * user's likes are in the order they were applied.
+     */
+    private boolean changeLike(int filmId, int userId, boolean added) {
+        synchronized (likeStripes[Math.floorMod(userId, STRIPES)]) {
+            if (added ? !likeStorage.addLike(filmId, userId) : !likeStorage.removeLike(filmId, userId)) {
+                return false;
+            }
+            if (added) {
+                recommendationIndex.addLike(userId, filmId);
+            } else {
+                recommendationIndex.removeLike(userId, filmId);
+            }
+            changeEventLog.publish(added ? ChangeEvent.LIKE_ADDED : ChangeEvent.LIKE_REMOVED, new Like(filmId, userId));
+            return true;
+        }
+    }
+
+    private void reindex(int filmId) {
+        searchIndex.reindex(filmId, () -> filmStorage.findById(filmId));
+        releaseIndex.reindex(filmId, () -> filmStorage.findById(filmId));
+        statsIndex.reindex(filmId, () -> filmStorage.findById(filmId));
+    }
+
+    private void checkFilm(Film film) throws ValidationException {
+        String error = filmValidator.validate(film);
+        if (error != null) {
+            log.warn("Ошибка при сохранении фильма: {}", error);
+            throw new ValidationException(error);
+        }
+    }
+
+    private void checkFilmAndUser(int filmId, int userId) {
+        if (filmStorage.findById(filmId).isEmpty()) {
+            throw new NotFoundException("Фильм с ID " + filmId + " не найден");
+        }
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+    }
+}
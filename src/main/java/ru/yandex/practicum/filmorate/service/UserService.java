@@ -0,0 +1,377 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.ChangeEventLog;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.ItemError;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserStats;
+import ru.yandex.practicum.filmorate.storage.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.UserStatsIndex;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.UserUniqueIndex;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserService {
+
+    private static final int STRIPES = 64;
+    private static final int MAX_TOP_DOMAINS = 100;
+
+    private final UserStorage userStorage;
+    private final FriendStorage friendStorage;
+    private final UserUniqueIndex uniqueIndex;
+    private final UserStatsIndex statsIndex;
+    private final UserValidator userValidator;
+    private final ChangeEventLog changeEventLog;
+    private final Object[] stripes = newStripes();
+
+    @PostConstruct
+    public void buildIndexes() {
+        for (User user : userStorage.findAll()) {
+            try {
+                uniqueIndex.claim(user, user.getId());
+            } catch (ConflictException e) {
+                log.warn("Пользователь {} не попал в индекс: {}", user.getId(), e.getMessage());
+            }
+            reindex(user.getId());
+        }
+    }
+
+    /**
+     * @throws ConflictException when the user's email or login is taken, or when it carries
+     *                           the ID of an existing user: a create never replaces one
+     */
+    public User create(User user) throws ValidationException {
+        checkUser(user);
+        user.setVersion(null);
+        if (user.getId() == null) {
+            return insert(user);
+        }
+        synchronized (stripes[Math.floorMod(user.getId(), STRIPES)]) {
+            checkIdFree(user.getId());
+            return insert(user);
+        }
+    }
+
+    public Collection<User> findUsers(Integer after) {
+        return after == null ? userStorage.findAll() : userStorage.findAfter(after);
+    }
+
+    public Optional<User> update(User user) throws ValidationException {
+        checkValid(user);
+        if (user.getId() == null) {
+            return Optional.empty();
+        }
+        int userId = user.getId();
+        synchronized (stripes[Math.floorMod(userId, STRIPES)]) {
+            Optional<User> old = userStorage.findById(userId);
+            if (old.isEmpty()) {
+                return Optional.empty();
+            }
+            User previous = copyKeys(old.get());
+            uniqueIndex.claim(user, userId);
+            Optional<User> updated;
+            try {
+                updated = userStorage.update(user);
+            } catch (RuntimeException e) {
+                uniqueIndex.releaseStale(user, previous, userId);
+                throw e;
+            }
+            if (updated.isPresent()) {
+                uniqueIndex.releaseStale(previous, updated.get(), userId);
+                reindex(userId);
+                changeEventLog.publish(ChangeEvent.USER_UPDATED, updated.get());
+            } else {
+                uniqueIndex.releaseStale(user, previous, userId);
+            }
+            return updated;
+        }
+    }
+
+    public List<ItemError> validateAll(List<User> users) {
+        List<ItemError> errors = new ArrayList<>();
+        Set<String> batchEmails = new HashSet<>();
+        Set<String> batchLogins = new HashSet<>();
+        Set<Integer> batchIds = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (user == null) {
+                errors.add(new ItemError(i, "Ошибка при создании пользователя: пользователь не может быть пустым"));
+                continue;
+            }
+            List<String> violations = userValidator.validateAll(user);
+            for (String error : violations) {
+                errors.add(new ItemError(i, error));
+            }
+            if (user.getId() != null
+                    && (userStorage.findById(user.getId()).isPresent() || !batchIds.add(user.getId()))) {
+                errors.add(new ItemError(i, "Пользователь с ID " + user.getId() + " уже существует"));
+            }
+            if (violations.isEmpty()) {
+                String unstorable = userStorage.checkStorable(user);
+                if (unstorable != null) {
+                    errors.add(new ItemError(i, unstorable));
+                }
+                fillName(user);
+                if (uniqueIndex.isEmailTaken(user) || !batchEmails.add(user.getEmail().toLowerCase(Locale.ROOT))) {
+                    errors.add(new ItemError(i, "Пользователь с email " + user.getEmail() + " уже существует"));
+                }
+                if (uniqueIndex.isLoginTaken(user) || !batchLogins.add(user.getLogin())) {
+                    errors.add(new ItemError(i, "Пользователь с логином " + user.getLogin() + " уже существует"));
+                }
+            }
+        }
+        return errors;
+    }
+
+    public List<User> createAll(List<User> users) {
+        for (User user : users) {
+            if (user.getId() != null) {
+                checkIdFree(user.getId());
+            }
+        }
+        int[] tokens = new int[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setVersion(null);
+            tokens[i] = uniqueIndex.nextToken();
+            try {
+                uniqueIndex.claim(users.get(i), tokens[i]);
+            } catch (ConflictException e) {
+                for (int j = 0; j < i; j++) {
+                    uniqueIndex.release(users.get(j), tokens[j]);
+                }
+                throw e;
+            }
+        }
+        List<User> created;
+        try {
+            created = userStorage.createAll(users);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < users.size(); i++) {
+                uniqueIndex.release(users.get(i), tokens[i]);
+            }
+            throw e;
+        }
+        for (int i = 0; i < created.size(); i++) {
+            uniqueIndex.rebind(created.get(i), tokens[i], created.get(i).getId());
+            reindex(created.get(i).getId());
+            changeEventLog.publish(ChangeEvent.USER_CREATED, created.get(i));
+        }
+        return created;
+    }
+
+    public void addFriend(int userId, int friendId) throws ValidationException {
+        if (userId == friendId) {
+            throw new ValidationException("Пользователь не может добавить в друзья самого себя");
+        }
+        checkUserExists(userId);
+        checkUserExists(friendId);
+        if (changeFriendship(userId, friendId, true)) {
+            log.info("Пользователи {} и {} теперь друзья", userId, friendId);
+        }
+    }
+
+    public void removeFriend(int userId, int friendId) {
+        checkUserExists(userId);
+        checkUserExists(friendId);
+        if (changeFriendship(userId, friendId, false)) {
+            log.info("Пользователи {} и {} больше не друзья", userId, friendId);
+        }
+    }
+
+    public List<User> getFriends(int userId) {
+        checkUserExists(userId);
+        return toUsers(friendStorage.findFriends(userId));
+    }
+
+    public List<User> getCommonFriends(int userId, int otherId) {
+        checkUserExists(userId);
+        checkUserExists(otherId);
+        return toUsers(friendStorage.findCommonFriends(userId, otherId));
+    }
+
+    /**
+     * Stores a user received from the leader unless this node already has the same or a
+     * newer version. Uniqueness is the leader's job; keys that collide here only on the way
+     * to the leader's state are left out of the local index.
+     */
+    public void replicate(User user) {
+        store(user, false);
+    }
+
+    /**
+     * Stores an imported user with its ID and version after validating it. Unlike
+     * {@link #replicate}, an email or login taken by another user rejects it.
+     *
+     * @return false when this node already has the same or a newer version
+     */
+    public boolean restore(User user) throws ValidationException {
+        checkUser(user);
+        if (user.getVersion() == null) {
+            user.setVersion(1L);
+        }
+        return store(user, true);
+    }
+
+    public void replicateFriendship(Friendship friendship, boolean added) {
+        changeFriendship(friendship.getUserId(), friendship.getFriendId(), added);
+    }
+
+    /**
+     * Every friendship once, from the user with the smaller ID.
+     */
+    public List<Friendship> findAllFriendships() {
+        List<Friendship> friendships = new ArrayList<>();
+        for (User user : userStorage.findAll()) {
+            for (int friendId : friendStorage.findFriends(user.getId())) {
+                if (user.getId() < friendId) {
+                    friendships.add(new Friendship(user.getId(), friendId));
+                }
+            }
+        }
+        return friendships;
+    }
+
+    public UserStats getStats(int topDomains) throws ValidationException {
+        if (topDomains <= 0 || topDomains > MAX_TOP_DOMAINS) {
+            throw new ValidationException("Параметр domains должен быть от 1 до " + MAX_TOP_DOMAINS);
+        }
+        return statsIndex.getStats(topDomains);
+    }
+
+    public void clear() {
+        userStorage.clear();
+        friendStorage.clear();
+        uniqueIndex.clear();
+        statsIndex.clear();
+    }
+
+    private User insert(User user) {
+        int token = uniqueIndex.nextToken();
+        uniqueIndex.claim(user, token);
+        User created;
+        try {
+            created = userStorage.create(user);
+        } catch (RuntimeException e) {
+            uniqueIndex.release(user, token);
+            throw e;
+        }
+        uniqueIndex.rebind(created, token, created.getId());
+        reindex(created.getId());
+        changeEventLog.publish(ChangeEvent.USER_CREATED, created);
+        return created;
+    }
+
+    private boolean store(User user, boolean strictKeys) {
+        int userId = user.getId();
+        synchronized (stripes[Math.floorMod(userId, STRIPES)]) {
+            Optional<User> current = userStorage.findById(userId);
+            if (current.isPresent() && current.get().getVersion() != null
+                    && user.getVersion() <= current.get().getVersion()) {
+                return false;
+            }
+            User previous = current.map(UserService::copyKeys).orElse(null);
+            try {
+                uniqueIndex.claim(user, userId);
+            } catch (ConflictException e) {
+                if (strictKeys) {
+                    throw e;
+                }
+                log.warn("Пользователь {} не попал в индекс: {}", userId, e.getMessage());
+            }
+            User stored = userStorage.create(user);
+            if (previous != null) {
+                uniqueIndex.releaseStale(previous, stored, userId);
+            }
+            reindex(userId);
+            changeEventLog.publish(previous == null ? ChangeEvent.USER_CREATED : ChangeEvent.USER_UPDATED, stored);
+            return true;
+        }
+    }
+
+    private void checkIdFree(int userId) {
+        if (userStorage.findById(userId).isPresent()) {
+            throw new ConflictException("Пользователь с ID " + userId + " уже существует");
+        }
+    }
+
+    private void checkUser(User user) throws ValidationException {
+        checkValid(user);
+        fillName(user);
+    }
+
+    private void checkValid(User user) throws ValidationException {
+        String error = userValidator.validate(user);
+        if (error == null) {
+            error = userStorage.checkStorable(user);
+        }
+        if (error != null) {
+            log.warn("Ошибка при сохранении пользователя: {}", error);
+            throw new ValidationException(error);
+        }
+    }
+
+    private static void fillName(User user) {
+        if (user.getName() == null || user.getName().isEmpty()) {
+            log.debug("Имя пользователя отсутствует, теперь логин является именем пользователя");
+            user.setName(user.getLogin());
+        }
+    }
+
+    /**
+     * Friendships are mutual, so both directions share the stripe of the smaller ID and
+     * their events are published in the order they were applied.
+     */
+    private boolean changeFriendship(int userId, int friendId, boolean added) {
+        synchronized (stripes[Math.floorMod(Math.min(userId, friendId), STRIPES)]) {
+            if (added ? !friendStorage.addFriend(userId, friendId) : !friendStorage.removeFriend(userId, friendId)) {
+                return false;
+            }
+            changeEventLog.publish(added ? ChangeEvent.FRIEND_ADDED : ChangeEvent.FRIEND_REMOVED,
+                    new Friendship(userId, friendId));
+            return true;
+        }
+    }
+
+    private void reindex(int userId) {
+        statsIndex.reindex(userId, () -> userStorage.findById(userId));
+    }
+
+    private static User copyKeys(User user) {
+        return new User(user.getId(), user.getEmail(), user.getLogin(), null, null);
+    }
+
+    private static Object[] newStripes() {
+        Object[] stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        return stripes;
+    }
+
+    private List<User> toUsers(int[] ids) {
+        List<User> users = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            userStorage.findById(id).ifPresent(users::add);
+        }
+        return users;
+    }
+
+    private void checkUserExists(int userId) {
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+    }
+}
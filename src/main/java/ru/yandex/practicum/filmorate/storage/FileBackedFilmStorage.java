@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.file.FileJournal;
+import ru.yandex.practicum.filmorate.storage.file.FilmCodec;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "file")
+public class FileBackedFilmStorage implements FilmStorage {
+
+    private final InMemoryFilmStorage films = new InMemoryFilmStorage();
+    private final IdAllocator idAllocator = new IdAllocator();
+    private final FileJournal<Film> journal;
+
+    public FileBackedFilmStorage(@Value("${filmorate.storage.file.dir:data}") Path dir,
+                                 @Value("${filmorate.storage.file.sync:false}") boolean sync) {
+        this.journal = new FileJournal<>(dir, "films", new FilmCodec(), sync);
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        journal.recover(film -> {
+            idAllocator.reserve(film.getId());
+            films.create(film);
+        });
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return films.findAll();
+    }
+
+    @Override
+    public Collection<Film> findAfter(int id) {
+        return films.findAfter(id);
+    }
+
+    @Override
+    public Optional<Film> findById(int id) {
+        return films.findById(id);
+    }
+
+    @Override
+    public int count() {
+        return films.count();
+    }
+
+    @Override
+    public long version() {
+        return films.version();
+    }
+
+    @Override
+    public Film create(Film film) {
+        if (film.getId() == null) {
+            film.setId(idAllocator.next());
+        } else {
+            idAllocator.reserve(film.getId());
+        }
+        return journal.write(film.getId(), () -> films.prepareCreate(film), films::create);
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        int withoutId = 0;
+        for (Film film : newFilms) {
+            if (film.getId() == null) {
+                withoutId++;
+            } else {
+                idAllocator.reserve(film.getId());
+            }
+        }
+        int nextId = idAllocator.nextBlock(withoutId);
+        for (Film film : newFilms) {
+            if (film.getId() == null) {
+                film.setId(nextId++);
+            }
+            films.prepareCreate(film);
+        }
+        journal.writeAll(newFilms, () -> films.createAll(newFilms));
+        return newFilms;
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        if (film.getId() == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(journal.write(film.getId(), () -> films.prepareUpdate(film).orElse(null),
+                films::create));
+    }
+
+    @Override
+    public void clear() {
+        try {
+            journal.reset(() -> {
+                films.clear();
+                idAllocator.reset();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.storage.file.snapshot-interval:PT5M}",
+            initialDelayString = "${filmorate.storage.file.snapshot-interval:PT5M}")
+    public void snapshot() {
+        try {
+            journal.snapshot(films.findAll());
+        } catch (IOException e) {
+            log.error("Не удалось записать снимок фильмов", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshot();
+        journal.close();
+    }
+}
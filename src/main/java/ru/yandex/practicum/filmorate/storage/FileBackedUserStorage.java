@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.file.FileJournal;
+import ru.yandex.practicum.filmorate.storage.file.UserCodec;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "file")
+public class FileBackedUserStorage implements UserStorage {
+
+    private final InMemoryUserStorage users = new InMemoryUserStorage();
+    private final IdAllocator idAllocator = new IdAllocator();
+    private final FileJournal<User> journal;
+
+    public FileBackedUserStorage(@Value("${filmorate.storage.file.dir:data}") Path dir,
+                                 @Value("${filmorate.storage.file.sync:false}") boolean sync) {
+        this.journal = new FileJournal<>(dir, "users", new UserCodec(), sync);
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        journal.recover(user -> {
+            idAllocator.reserve(user.getId());
+            users.create(user);
+        });
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return users.findAll();
+    }
+
+    @Override
+    public Collection<User> findAfter(int id) {
+        return users.findAfter(id);
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return users.findById(id);
+    }
+
+    @Override
+    public int count() {
+        return users.count();
+    }
+
+    @Override
+    public long version() {
+        return users.version();
+    }
+
+    @Override
+    public User create(User user) {
+        if (user.getId() == null) {
+            user.setId(idAllocator.next());
+        } else {
+            idAllocator.reserve(user.getId());
+        }
+        return journal.write(user.getId(), () -> users.prepareCreate(user), users::create);
+    }
+
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        int withoutId = 0;
+        for (User user : newUsers) {
+            if (user.getId() == null) {
+                withoutId++;
+            } else {
+                idAllocator.reserve(user.getId());
+            }
+        }
+        int nextId = idAllocator.nextBlock(withoutId);
+        for (User user : newUsers) {
+            if (user.getId() == null) {
+                user.setId(nextId++);
+            }
+            users.prepareCreate(user);
+        }
+        journal.writeAll(newUsers, () -> users.createAll(newUsers));
+        return newUsers;
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        if (user.getId() == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(journal.write(user.getId(), () -> users.prepareUpdate(user).orElse(null),
+                users::create));
+    }
+
+    @Override
+    public void clear() {
+        try {
+            journal.reset(() -> {
+                users.clear();
+                idAllocator.reset();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.storage.file.snapshot-interval:PT5M}",
+            initialDelayString = "${filmorate.storage.file.snapshot-interval:PT5M}")
+    public void snapshot() {
+        try {
+            journal.snapshot(users.findAll());
+        } catch (IOException e) {
+            log.error("Не удалось записать снимок пользователей", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshot();
+        journal.close();
+    }
+}
@@ -0,0 +1,291 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Finds users with similar likes through MinHash locality-sensitive hashing instead of
+ * comparing a user with everyone else. Every user has a signature of {@value #HASHES}
+ * min-hashes of the liked film ids, split into {@value #BANDS} bands; users sharing a
+ * band land in the same slot of that band's table. Candidates from the user's slots are
+ * then ranked by exact Jaccard similarity, and the films liked by the closest ones score
+ * by the sum of their similarities.
+ * <p>
+ * Slots are fixed-size and capped, so memory stays bounded and a query looks at no more
+ * than {@code BANDS * SLOT_CAPACITY} candidates however many users there are. A slot that
+ * is full no longer takes new users: they are similar to many others and still find
+ * neighbours through the users already there. Updates for one user must not run
+ * concurrently; the caller serializes them.
+ */
+@Component
+public class FilmRecommendationIndex {
+
+    private static final int HASHES = 16;
+    private static final int ROWS = 2;
+    private static final int BANDS = HASHES / ROWS;
+    private static final int SLOTS_PER_BAND = 1 << 16;
+    private static final int SLOT_CAPACITY = 256;
+    private static final int NEIGHBOURS = 50;
+    private static final int PARALLEL_THRESHOLD = 512;
+    private static final int[] EMPTY = new int[0];
+    private static final long[] SEEDS = seeds();
+
+    private final Map<Integer, Profile> profiles = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<int[]> slots = new AtomicReferenceArray<>(BANDS * SLOTS_PER_BAND);
+
+    public void addLike(int userId, int filmId) {
+        Profile old = profiles.get(userId);
+        int[] films = old == null ? EMPTY : old.films;
+        int position = Arrays.binarySearch(films, filmId);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        int[] updated = new int[films.length + 1];
+        System.arraycopy(films, 0, updated, 0, insertAt);
+        updated[insertAt] = filmId;
+        System.arraycopy(films, insertAt, updated, insertAt + 1, films.length - insertAt);
+        int[] signature = old == null ? emptySignature() : old.signature.clone();
+        for (int i = 0; i < HASHES; i++) {
+            signature[i] = Math.min(signature[i], hash(filmId, i));
+        }
+        replace(userId, old, new Profile(updated, signature));
+    }
+
+    public void removeLike(int userId, int filmId) {
+        Profile old = profiles.get(userId);
+        if (old == null) {
+            return;
+        }
+        int position = Arrays.binarySearch(old.films, filmId);
+        if (position < 0) {
+            return;
+        }
+        if (old.films.length == 1) {
+            replace(userId, old, null);
+            return;
+        }
+        int[] updated = new int[old.films.length - 1];
+        System.arraycopy(old.films, 0, updated, 0, position);
+        System.arraycopy(old.films, position + 1, updated, position, updated.length - position);
+        int[] signature = emptySignature();
+        for (int film : updated) {
+            for (int i = 0; i < HASHES; i++) {
+                signature[i] = Math.min(signature[i], hash(film, i));
+            }
+        }
+        replace(userId, old, new Profile(updated, signature));
+    }
+
+    /**
+     * Returns up to {@code count} ids of films the user has not liked, best first.
+     * Candidates are scored on the common fork-join pool when there are many of them.
+     */
+    public List<Integer> recommend(int userId, int count) {
+        Profile me = profiles.get(userId);
+        if (me == null) {
+            return List.of();
+        }
+        int[] candidates = candidates(userId, me);
+        IntStream stream = Arrays.stream(candidates);
+        if (candidates.length >= PARALLEL_THRESHOLD) {
+            stream = stream.parallel();
+        }
+        long[] neighbours = stream
+                .mapToLong(candidate -> similarity(me, candidate))
+                .filter(packed -> packed != 0)
+                .sorted()
+                .limit(NEIGHBOURS)
+                .toArray();
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (long packed : neighbours) {
+            Profile neighbour = profiles.get((int) packed);
+            if (neighbour == null) {
+                continue;
+            }
+            double similarity = Integer.MAX_VALUE - (int) (packed >>> 32);
+            for (int film : neighbour.films) {
+                if (Arrays.binarySearch(me.films, film) < 0) {
+                    scores.merge(film, similarity, Double::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(count)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    public void clear() {
+        profiles.clear();
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private int[] candidates(int userId, Profile me) {
+        Set<Integer> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            int[] users = slots.get(slot(me.signature, band));
+            if (users == null) {
+                continue;
+            }
+            for (int user : users) {
+                if (user != userId) {
+                    candidates.add(user);
+                }
+            }
+        }
+        return candidates.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Packs the Jaccard similarity (scaled to an int, inverted so that closer users sort
+     * first) and the user id into one long; 0 when the users have nothing in common.
+     */
+    private long similarity(Profile me, int candidate) {
+        Profile other = profiles.get(candidate);
+        if (other == null) {
+            return 0;
+        }
+        int common = intersectionSize(me.films, other.films);
+        if (common == 0) {
+            return 0;
+        }
+        double jaccard = (double) common / (me.films.length + other.films.length - common);
+        int scaled = (int) (jaccard * 1_000_000);
+        return ((long) (Integer.MAX_VALUE - scaled) << 32) | (candidate & 0xffffffffL);
+    }
+
+    private void replace(int userId, Profile old, Profile updated) {
+        for (int band = 0; band < BANDS; band++) {
+            int oldSlot = old == null ? -1 : slot(old.signature, band);
+            int newSlot = updated == null ? -1 : slot(updated.signature, band);
+            if (oldSlot == newSlot) {
+                continue;
+            }
+            if (oldSlot >= 0) {
+                leave(oldSlot, userId);
+            }
+            if (newSlot >= 0) {
+                join(newSlot, userId);
+            }
+        }
+        if (updated == null) {
+            profiles.remove(userId);
+        } else {
+            profiles.put(userId, updated);
+        }
+    }
+
+    private void join(int slot, int userId) {
+        while (true) {
+            int[] users = slots.get(slot);
+            int[] current = users == null ? EMPTY : users;
+            if (current.length >= SLOT_CAPACITY) {
+                return;
+            }
+            int[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = userId;
+            if (slots.compareAndSet(slot, users, updated)) {
+                return;
+            }
+        }
+    }
+
+    private void leave(int slot, int userId) {
+        while (true) {
+            int[] users = slots.get(slot);
+            if (users == null) {
+                return;
+            }
+            int position = -1;
+            for (int i = 0; i < users.length; i++) {
+                if (users[i] == userId) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                return;
+            }
+            int[] updated = null;
+            if (users.length > 1) {
+                updated = new int[users.length - 1];
+                System.arraycopy(users, 0, updated, 0, position);
+                System.arraycopy(users, position + 1, updated, position, updated.length - position);
+            }
+            if (slots.compareAndSet(slot, users, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static int slot(int[] signature, int band) {
+        long key = band;
+        for (int row = 0; row < ROWS; row++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[band * ROWS + row];
+        }
+        return band * SLOTS_PER_BAND + (int) (mix(key) & (SLOTS_PER_BAND - 1));
+    }
+
+    private static int intersectionSize(int[] first, int[] second) {
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                size++;
+                i++;
+                j++;
+            }
+        }
+        return size;
+    }
+
+    private static int[] emptySignature() {
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        return signature;
+    }
+
+    private static int hash(int filmId, int function) {
+        return (int) (mix(filmId ^ SEEDS[function]) >>> 33);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static long[] seeds() {
+        long[] seeds = new long[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            seeds[i] = mix(0x5DEECE66DL * (i + 1));
+        }
+        return seeds;
+    }
+
+    private static final class Profile {
+        final int[] films;
+        final int[] signature;
+
+        Profile(int[] films, int[] signature) {
+            this.films = films;
+            this.signature = signature;
+        }
+    }
+}
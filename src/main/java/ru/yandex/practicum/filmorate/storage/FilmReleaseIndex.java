@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Supplier;
+
+/**
+ * Films ordered by (release date, id), packed into one long per film, so a date range
+ * is a subSet of the skip list instead of a scan over all films.
+ */
+@Component
+public class FilmReleaseIndex {
+
+    private final NavigableSet<Long> byDate = new ConcurrentSkipListSet<>();
+    private final Map<Integer, Long> keys = new ConcurrentHashMap<>();
+
+    public void reindex(int filmId, Supplier<Optional<Film>> current) {
+        keys.compute(filmId, (id, oldKey) -> {
+            Long newKey = current.get()
+                    .map(Film::getReleaseDate)
+                    .map(date -> key(date.toEpochDay(), id))
+                    .orElse(null);
+            if (newKey != null) {
+                byDate.add(newKey);
+            }
+            if (oldKey != null && !oldKey.equals(newKey)) {
+                byDate.remove(oldKey);
+            }
+            return newKey;
+        });
+    }
+
+    /**
+     * Returns IDs of films released within [from, to] in release order; a null bound is open.
+     */
+    public List<Integer> findBetween(LocalDate from, LocalDate to) {
+        long low = from == null ? Long.MIN_VALUE : key(from.toEpochDay(), 0);
+        long high = to == null ? Long.MAX_VALUE : key(to.toEpochDay(), -1);
+        List<Integer> ids = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (Long key : byDate.subSet(low, true, high, true)) {
+            int filmId = (int) (long) key;
+            if (seen.add(filmId)) {
+                ids.add(filmId);
+            }
+        }
+        return ids;
+    }
+
+    public void clear() {
+        byDate.clear();
+        keys.clear();
+    }
+
+    private static long key(long epochDay, int filmId) {
+        return epochDay << 32 | (filmId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,217 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.SearchIndexStats;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Inverted index over film names and descriptions. Terms are kept sorted, so the last
+ * query word also matches as a prefix (typeahead). A film matches when it contains
+ * every query word; a word in the name weighs more than one in the description.
+ * A last word shorter than {@value #MIN_PREFIX} characters matches only as a whole word.
+ * A longer one expands to at most {@value #MAX_PREFIX_TERMS} terms in sort order and
+ * {@value #MAX_PREFIX_POSTINGS} of their postings, so a typeahead request costs the same
+ * however many films share the prefix; past the cap, matches are ranked among those read.
+ * A term whose last film is gone keeps an empty entry: dropping it could race with
+ * a concurrent add of the same term.
+ */
+@Component
+public class FilmSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int STRIPES = 64;
+    private static final int MIN_PREFIX = 3;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MAX_PREFIX_POSTINGS = 10_000;
+    private static final Comparator<long[]> WORST_FIRST =
+            Comparator.<long[]>comparingLong(match -> match[1]).thenComparing(match -> -match[0]);
+
+    private final ConcurrentSkipListMap<String, Map<Integer, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Integer, String[]> filmTerms = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    public FilmSearchIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Re-reads the film under a per-film lock, so the index ends up with the latest
+     * stored state even when updates of the same film race.
+     */
+    public void reindex(int filmId, Supplier<Optional<Film>> current) {
+        synchronized (stripes[Math.floorMod(filmId, STRIPES)]) {
+            String[] oldTerms = filmTerms.remove(filmId);
+            if (oldTerms != null) {
+                for (String term : oldTerms) {
+                    Map<Integer, Integer> films = postings.get(term);
+                    if (films != null) {
+                        films.remove(filmId);
+                    }
+                }
+            }
+            Film film = current.get().orElse(null);
+            if (film == null) {
+                return;
+            }
+            Map<String, Integer> weights = new HashMap<>();
+            addTerms(weights, film.getName(), NAME_WEIGHT);
+            addTerms(weights, film.getDescription(), DESCRIPTION_WEIGHT);
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new ConcurrentHashMap<>())
+                        .put(filmId, entry.getValue());
+            }
+            filmTerms.put(filmId, weights.keySet().toArray(new String[0]));
+        }
+    }
+
+    public List<Integer> search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        String prefix = words.get(words.size() - 1);
+        List<Map<Integer, Integer>> exact = new ArrayList<>(words.size() - 1);
+        for (String word : words.subList(0, words.size() - 1)) {
+            Map<Integer, Integer> films = postings.get(word);
+            if (films == null || films.isEmpty()) {
+                return List.of();
+            }
+            exact.add(films);
+        }
+        PriorityQueue<long[]> top = new PriorityQueue<>(Math.min(limit, 1024) + 1, WORST_FIRST);
+        if (exact.isEmpty()) {
+            for (Map.Entry<Integer, Integer> match : matchPrefix(prefix).entrySet()) {
+                offer(top, limit, match.getKey(), match.getValue());
+            }
+        } else {
+            exact.sort(Comparator.comparingInt(Map::size));
+            Map<Integer, Integer> smallest = exact.get(0);
+            for (Map.Entry<Integer, Integer> candidate : smallest.entrySet()) {
+                int filmId = candidate.getKey();
+                int score = candidate.getValue();
+                for (int i = 1; i < exact.size() && score > 0; i++) {
+                    Integer weight = exact.get(i).get(filmId);
+                    score = weight == null ? 0 : score + weight;
+                }
+                if (score > 0) {
+                    int prefixWeight = prefixWeight(filmId, prefix);
+                    if (prefixWeight > 0) {
+                        offer(top, limit, filmId, score + prefixWeight);
+                    }
+                }
+            }
+        }
+        List<Integer> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add((int) top.poll()[0]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    public SearchIndexStats getStats() {
+        long terms = 0;
+        long termChars = 0;
+        long entries = 0;
+        for (Map.Entry<String, Map<Integer, Integer>> entry : postings.entrySet()) {
+            terms++;
+            termChars += entry.getKey().length();
+            entries += entry.getValue().size();
+        }
+        // Rough object sizes for a 64-bit JVM with compressed oops: a skip-list node and
+        // posting map per term, a hash node plus boxed weight per posting, and the term
+        // array kept for every film.
+        long films = filmTerms.size();
+        long estimatedBytes = terms * (24 + 24 + 64 + 40) + termChars * 2
+                + entries * (32 + 16 + 4) + films * (32 + 16) + entries * 4;
+        return new SearchIndexStats(films, terms, entries, estimatedBytes);
+    }
+
+    public void clear() {
+        postings.clear();
+        filmTerms.clear();
+    }
+
+    private Map<Integer, Integer> matchPrefix(String prefix) {
+        if (prefix.length() < MIN_PREFIX) {
+            Map<Integer, Integer> films = postings.get(prefix);
+            return films == null ? Map.of() : films;
+        }
+        Map<Integer, Integer> matches = new HashMap<>();
+        int terms = 0;
+        int read = 0;
+        for (Map<Integer, Integer> films : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (films.isEmpty()) {
+                continue;
+            }
+            if (++terms > MAX_PREFIX_TERMS) {
+                break;
+            }
+            for (Map.Entry<Integer, Integer> entry : films.entrySet()) {
+                if (++read > MAX_PREFIX_POSTINGS) {
+                    return matches;
+                }
+                matches.merge(entry.getKey(), entry.getValue(), Math::max);
+            }
+        }
+        return matches;
+    }
+
+    private int prefixWeight(int filmId, String prefix) {
+        String[] terms = filmTerms.get(filmId);
+        if (terms == null) {
+            return 0;
+        }
+        int best = 0;
+        for (String term : terms) {
+            if (prefix.length() < MIN_PREFIX ? term.equals(prefix) : term.startsWith(prefix)) {
+                Map<Integer, Integer> films = postings.get(term);
+                Integer weight = films == null ? null : films.get(filmId);
+                if (weight != null && weight > best) {
+                    best = weight;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static void offer(PriorityQueue<long[]> top, int limit, int filmId, int score) {
+        top.add(new long[]{filmId, score});
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                term.append(c == 'ё' ? 'е' : c);
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+}
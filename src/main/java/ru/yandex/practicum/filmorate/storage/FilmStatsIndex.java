@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.DurationStats;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.HistogramBin;
+import ru.yandex.practicum.filmorate.storage.sketch.KeyCounts;
+import ru.yandex.practicum.filmorate.storage.sketch.LogLinearHistogram;
+import ru.yandex.practicum.filmorate.storage.sketch.LongSlots;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Catalog aggregates kept up to date on every write instead of scanning all films per
+ * request: films per release year and a histogram of durations. Each film's last counted
+ * year and duration are kept packed in one long, so an update takes the old values out
+ * before adding the new ones. Writers of one film are serialized by a striped lock; readers
+ * take no locks and see every counter as of some moment, possibly halfway through a write.
+ */
+@Component
+public class FilmStatsIndex {
+
+    private static final int STRIPES = 64;
+    private static final int BIN_WIDTH = 30;
+    private static final int BINS = 10;
+    private static final long PRESENT = 1L << 63;
+    private static final int NO_YEAR = 0x7FFF;
+
+    private final LongSlots counted = new LongSlots();
+    private final LongAdder films = new LongAdder();
+    private final KeyCounts byYear = new KeyCounts();
+    private final LogLinearHistogram durations = new LogLinearHistogram();
+    private final Object[] stripes = newStripes();
+
+    public void reindex(int filmId, Supplier<Optional<Film>> current) {
+        synchronized (stripes[Math.floorMod(filmId, STRIPES)]) {
+            long state = current.get().map(FilmStatsIndex::state).orElse(0L);
+            long old = counted.getAndSet(filmId, state);
+            if (old != state) {
+                count(old, -1);
+                count(state, 1);
+            }
+        }
+    }
+
+    /**
+     * Durations are binned by {@value #BIN_WIDTH} minutes, the last bin takes everything longer.
+     */
+    public FilmStats getStats() {
+        LogLinearHistogram.Snapshot snapshot = durations.snapshot();
+        List<HistogramBin> histogram = new ArrayList<>(BINS);
+        for (int bin = 0; bin < BINS; bin++) {
+            long from = (long) bin * BIN_WIDTH;
+            Long to = bin == BINS - 1 ? null : from + BIN_WIDTH;
+            histogram.add(new HistogramBin(from, to, snapshot.countBetween(from, to == null ? Long.MAX_VALUE : to)));
+        }
+        DurationStats duration = new DurationStats(snapshot.mean(), snapshot.percentile(0.5),
+                snapshot.percentile(0.9), snapshot.percentile(0.99), histogram);
+        return new FilmStats(films.sum(), byYear.snapshot(), duration);
+    }
+
+    public void clear() {
+        counted.clear();
+        films.reset();
+        byYear.clear();
+        durations.clear();
+    }
+
+    private void count(long state, int delta) {
+        if (state == 0) {
+            return;
+        }
+        films.add(delta);
+        int year = (int) (state >>> 32 & 0x7FFF);
+        if (year != NO_YEAR) {
+            byYear.add(year, delta);
+        }
+        if ((state & 1L << 62) != 0) {
+            durations.add((int) state, delta);
+        }
+    }
+
+    /**
+     * Presence bit, a duration bit, 15 bits of release year and 32 bits of duration.
+     */
+    private static long state(Film film) {
+        long state = PRESENT;
+        int year = film.getReleaseDate() == null ? NO_YEAR : film.getReleaseDate().getYear();
+        state |= (long) (year >= 0 && year < NO_YEAR ? year : NO_YEAR) << 32;
+        if (film.getDuration() != null && film.getDuration() >= 0) {
+            state |= 1L << 62 | film.getDuration();
+        }
+        return state;
+    }
+
+    private static Object[] newStripes() {
+        Object[] stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        return stripes;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FilmStorage {
+
+    Collection<Film> findAll();
+
+    Collection<Film> findAfter(int id);
+
+    Optional<Film> findById(int id);
+
+    int count();
+
+    /**
+     * Grows with every change of the collection, so equal versions mean equal contents.
+     */
+    long version();
+
+    Film create(Film film);
+
+    /**
+     * Stores a validated batch of new entities. The batch is applied as a whole: it is
+     * logged as one record, and the version changes once, after the last item is stored.
+     * Items still become visible one by one, so a concurrent read may see part of the batch.
+     */
+    List<Film> createAll(List<Film> films);
+
+    /**
+     * Replaces the stored film and increments its version. When the given film carries
+     * a version, the replacement is a compare-and-set against it and a stale one is
+     * rejected with a {@link ru.yandex.practicum.filmorate.exception.ConflictException}.
+     */
+    Optional<Film> update(Film film);
+
+    void clear();
+}
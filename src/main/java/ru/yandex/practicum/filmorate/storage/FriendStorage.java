@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.storage;
+
+public interface FriendStorage {
+
+    boolean addFriend(int userId, int friendId);
+
+    boolean removeFriend(int userId, int friendId);
+
+    int[] findFriends(int userId);
+
+    int[] findCommonFriends(int userId, int otherId);
+
+    void clear();
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdAllocator {
+
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    public int next() {
+        return lastId.incrementAndGet();
+    }
+
+    public int nextBlock(int size) {
+        return lastId.getAndAdd(size) + 1;
+    }
+
+    public void reserve(int id) {
+        if (lastId.get() < id) {
+            lastId.accumulateAndGet(id, Math::max);
+        }
+    }
+
+    public void reset() {
+        lastId.set(0);
+    }
+}
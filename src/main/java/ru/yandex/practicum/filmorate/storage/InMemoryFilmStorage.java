@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "memory", matchIfMissing = true)
+public class InMemoryFilmStorage implements FilmStorage {
+
+    private static final long INITIAL_VERSION = 1;
+
+    private final NavigableMap<Integer, Film> films = new ConcurrentSkipListMap<>();
+    private final IdAllocator idAllocator = new IdAllocator();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public Collection<Film> findAll() {
+        return Collections.unmodifiableCollection(films.values());
+    }
+
+    @Override
+    public Collection<Film> findAfter(int id) {
+        return Collections.unmodifiableCollection(films.tailMap(id, false).values());
+    }
+
+    @Override
+    public Optional<Film> findById(int id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public int count() {
+        return size.get();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public Film create(Film film) {
+        if (film.getId() == null) {
+            film.setId(idAllocator.next());
+        } else {
+            idAllocator.reserve(film.getId());
+        }
+        prepareCreate(film);
+        if (films.put(film.getId(), film) == null) {
+            size.incrementAndGet();
+        }
+        version.incrementAndGet();
+        return film;
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        int withoutId = 0;
+        for (Film film : newFilms) {
+            if (film.getId() == null) {
+                withoutId++;
+            } else {
+                idAllocator.reserve(film.getId());
+            }
+        }
+        int nextId = idAllocator.nextBlock(withoutId);
+        int added = 0;
+        for (Film film : newFilms) {
+            if (film.getId() == null) {
+                film.setId(nextId++);
+            }
+            if (film.getVersion() == null) {
+                film.setVersion(INITIAL_VERSION);
+            }
+            if (films.put(film.getId(), film) == null) {
+                added++;
+            }
+        }
+        size.addAndGet(added);
+        version.incrementAndGet();
+        return newFilms;
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        if (film.getId() == null) {
+            return Optional.empty();
+        }
+        Long expected = film.getVersion();
+        Film updated = films.computeIfPresent(film.getId(), (id, current) -> {
+            film.setVersion(nextVersion(id, current, expected));
+            return film;
+        });
+        if (updated != null) {
+            version.incrementAndGet();
+        }
+        return Optional.ofNullable(updated);
+    }
+
+    /**
+     * Gives a new film its initial version unless it carries one.
+     */
+    Film prepareCreate(Film film) {
+        if (film.getVersion() == null) {
+            film.setVersion(INITIAL_VERSION);
+        }
+        return film;
+    }
+
+    /**
+     * Checks an update against the stored film and gives it the next version without storing
+     * it, for callers that keep writes of one film in order themselves.
+     */
+    Optional<Film> prepareUpdate(Film film) {
+        Long expected = film.getVersion();
+        return findById(film.getId()).map(current -> {
+            film.setVersion(nextVersion(film.getId(), current, expected));
+            return film;
+        });
+    }
+
+    @Override
+    public void clear() {
+        films.clear();
+        size.set(0);
+        version.incrementAndGet();
+        idAllocator.reset();
+    }
+
+    private static long nextVersion(int id, Film current, Long expected) {
+        long currentVersion = current.getVersion() == null ? INITIAL_VERSION : current.getVersion();
+        if (expected != null && expected != currentVersion) {
+            throw new ConflictException("Фильм с ID " + id + " уже изменён: текущая версия "
+                    + currentVersion + ", в запросе " + expected);
+        }
+        return currentVersion + 1;
+    }
+}
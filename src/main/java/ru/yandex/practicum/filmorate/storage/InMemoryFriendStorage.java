@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Friendships are mutual and kept as one sorted {@code int[]} per user, replaced
+ * copy-on-write, so readers never lock and common friends are a linear merge.
+ * Returned arrays are shared and must not be modified.
+ */
+@Component
+public class InMemoryFriendStorage implements FriendStorage {
+
+    private static final int[] NO_FRIENDS = new int[0];
+
+    private final Map<Integer, int[]> friends = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        boolean added = link(userId, friendId);
+        link(friendId, userId);
+        return added;
+    }
+
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        boolean removed = unlink(userId, friendId);
+        unlink(friendId, userId);
+        return removed;
+    }
+
+    @Override
+    public int[] findFriends(int userId) {
+        return friends.getOrDefault(userId, NO_FRIENDS);
+    }
+
+    @Override
+    public int[] findCommonFriends(int userId, int otherId) {
+        return intersect(findFriends(userId), findFriends(otherId));
+    }
+
+    @Override
+    public void clear() {
+        friends.clear();
+    }
+
+    private static int[] intersect(int[] first, int[] second) {
+        int[] common = new int[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return size == common.length ? common : Arrays.copyOf(common, size);
+    }
+
+    private boolean link(int userId, int friendId) {
+        boolean[] changed = new boolean[1];
+        friends.compute(userId, (id, current) -> {
+            int[] ids = current == null ? NO_FRIENDS : current;
+            int position = Arrays.binarySearch(ids, friendId);
+            if (position >= 0) {
+                return current;
+            }
+            int insertAt = -position - 1;
+            int[] updated = new int[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, insertAt);
+            updated[insertAt] = friendId;
+            System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+            changed[0] = true;
+            return updated;
+        });
+        return changed[0];
+    }
+
+    private boolean unlink(int userId, int friendId) {
+        boolean[] changed = new boolean[1];
+        friends.computeIfPresent(userId, (id, ids) -> {
+            int position = Arrays.binarySearch(ids, friendId);
+            if (position < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                changed[0] = true;
+                return null;
+            }
+            int[] updated = new int[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            changed[0] = true;
+            return updated;
+        });
+        return changed[0];
+    }
+}
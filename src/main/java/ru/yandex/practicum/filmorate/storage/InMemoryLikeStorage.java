@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Keeps liked films in a skip list ordered by (likes desc, id asc), so a like or
+ * unlike costs O(log n) and the top of the ranking is read without sorting.
+ */
+@Component
+public class InMemoryLikeStorage implements LikeStorage {
+
+    private final Map<Integer, Set<Integer>> likes = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> ranking = new ConcurrentSkipListSet<>();
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        Set<Integer> users = likes.computeIfAbsent(filmId, id -> new HashSet<>());
+        synchronized (users) {
+            if (!users.add(userId)) {
+                return false;
+            }
+            rerank(filmId, users.size() - 1, users.size());
+            return true;
+        }
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        Set<Integer> users = likes.get(filmId);
+        if (users == null) {
+            return false;
+        }
+        synchronized (users) {
+            if (!users.remove(userId)) {
+                return false;
+            }
+            rerank(filmId, users.size() + 1, users.size());
+            return true;
+        }
+    }
+
+    @Override
+    public int countLikes(int filmId) {
+        Set<Integer> users = likes.get(filmId);
+        if (users == null) {
+            return 0;
+        }
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    @Override
+    public int[] findLikes(int filmId) {
+        Set<Integer> users = likes.get(filmId);
+        if (users == null) {
+            return new int[0];
+        }
+        synchronized (users) {
+            return users.stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+    }
+
+    @Override
+    public List<Integer> findPopular(int count) {
+        List<Integer> popular = new ArrayList<>(Math.min(count, 1024));
+        Set<Integer> seen = new HashSet<>();
+        for (Long rank : ranking) {
+            if (popular.size() == count) {
+                break;
+            }
+            int filmId = (int) (long) rank;
+            if (seen.add(filmId)) {
+                popular.add(filmId);
+            }
+        }
+        return popular;
+    }
+
+    @Override
+    public void clear() {
+        likes.clear();
+        ranking.clear();
+    }
+
+    private void rerank(int filmId, int oldCount, int newCount) {
+        if (newCount > 0) {
+            ranking.add(rank(filmId, newCount));
+        }
+        if (oldCount > 0) {
+            ranking.remove(rank(filmId, oldCount));
+        }
+    }
+
+    /**
+     * Packs the like count and film id into one key: fewer likes and then larger ids sort later.
+     * Readers may briefly see a film under both its old and new count, never under neither.
+     */
+    private static long rank(int filmId, int likeCount) {
+        return ((long) (Integer.MAX_VALUE - likeCount) << 32) | (filmId & 0xffffffffL);
+    }
+}
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "memory", matchIfMissing = true)
+public class InMemoryUserStorage implements UserStorage {
+
+    private static final long INITIAL_VERSION = 1;
+
+    private final NavigableMap<Integer, User> users = new ConcurrentSkipListMap<>();
+    private final IdAllocator idAllocator = new IdAllocator();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public Collection<User> findAll() {
+        return Collections.unmodifiableCollection(users.values());
+    }
+
+    @Override
+    public Collection<User> findAfter(int id) {
+        return Collections.unmodifiableCollection(users.tailMap(id, false).values());
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public int count() {
+        return size.get();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public User create(User user) {
+        if (user.getId() == null) {
+            user.setId(idAllocator.next());
+        } else {
+            idAllocator.reserve(user.getId());
+        }
+        prepareCreate(user);
+        if (users.put(user.getId(), user) == null) {
+            size.incrementAndGet();
+        }
+        version.incrementAndGet();
+        return user;
+    }
+
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        int withoutId = 0;
+        for (User user : newUsers) {
+            if (user.getId() == null) {
+                withoutId++;
+            } else {
+                idAllocator.reserve(user.getId());
+            }
+        }
+        int nextId = idAllocator.nextBlock(withoutId);
+        int added = 0;
+        for (User user : newUsers) {
+            if (user.getId() == null) {
+                user.setId(nextId++);
+            }
+            if (user.getVersion() == null) {
+                user.setVersion(INITIAL_VERSION);
+            }
+            if (users.put(user.getId(), user) == null) {
+                added++;
+            }
+        }
+        size.addAndGet(added);
+        version.incrementAndGet();
+        return newUsers;
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        if (user.getId() == null) {
+            return Optional.empty();
+        }
+        Long expected = user.getVersion();
+        User updated = users.computeIfPresent(user.getId(), (id, current) -> {
+            user.setVersion(nextVersion(id, current, expected));
+            return user;
+        });
+        if (updated != null) {
+            version.incrementAndGet();
+        }
+        return Optional.ofNullable(updated);
+    }
+
+    /**
+     * Gives a new user its initial version unless it carries one.
+     */
+    User prepareCreate(User user) {
+        if (user.getVersion() == null) {
+            user.setVersion(INITIAL_VERSION);
+        }
+        return user;
+    }
+
+    /**
+     * Checks an update against the stored user and gives it the next version without storing
+     * it, for callers that keep writes of one user in order themselves.
+     */
+    Optional<User> prepareUpdate(User user) {
+        Long expected = user.getVersion();
+        return findById(user.getId()).map(current -> {
+            user.setVersion(nextVersion(user.getId(), current, expected));
+            return user;
+        });
+    }
+
+    @Override
+    public void clear() {
+        users.clear();
+        size.set(0);
+        version.incrementAndGet();
+        idAllocator.reset();
+    }
+
+    private static long nextVersion(int id, User current, Long expected) {
+        long currentVersion = current.getVersion() == null ? INITIAL_VERSION : current.getVersion();
+        if (expected != null && expected != currentVersion) {
+            throw new ConflictException("Пользователь с ID " + id + " уже изменён: текущая версия "
+                    + currentVersion + ", в запросе " + expected);
+        }
+        return currentVersion + 1;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+
+public interface LikeStorage {
+
+    boolean addLike(int filmId, int userId);
+
+    boolean removeLike(int filmId, int userId);
+
+    int countLikes(int filmId);
+
+    int[] findLikes(int filmId);
+
+    List<Integer> findPopular(int count);
+
+    void clear();
+}
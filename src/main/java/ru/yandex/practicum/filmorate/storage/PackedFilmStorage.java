@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.packed.FilmRowCodec;
+import ru.yandex.practicum.filmorate.storage.packed.PackedTable;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Films in a {@link PackedTable} instead of one object graph per film, for large collections
+ * held in memory. Enabled with {@code filmorate.storage.mode=packed}. Every read builds a new
+ * {@link Film}, so changing a returned film does not change the stored one.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "packed")
+public class PackedFilmStorage implements FilmStorage {
+
+    private static final long INITIAL_VERSION = 1;
+
+    private final PackedTable<Film> films = new PackedTable<>(new FilmRowCodec(), "Фильм");
+    private final IdAllocator idAllocator = new IdAllocator();
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public Collection<Film> findAll() {
+        return view(Long.MIN_VALUE);
+    }
+
+    @Override
+    public Collection<Film> findAfter(int id) {
+        return view(id);
+    }
+
+    @Override
+    public Optional<Film> findById(int id) {
+        return films.get(id);
+    }
+
+    @Override
+    public int count() {
+        return films.size();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public Film create(Film film) {
+        if (film.getId() == null) {
+            film.setId(idAllocator.next());
+        } else {
+            idAllocator.reserve(film.getId());
+        }
+        if (film.getVersion() == null) {
+            film.setVersion(INITIAL_VERSION);
+        }
+        films.put(film.getId(), film, film.getVersion());
+        version.incrementAndGet();
+        return film;
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        int withoutId = 0;
+        for (Film film : newFilms) {
+            if (film.getId() == null) {
+                withoutId++;
+            } else {
+                idAllocator.reserve(film.getId());
+            }
+        }
+        int nextId = idAllocator.nextBlock(withoutId);
+        for (Film film : newFilms) {
+            if (film.getId() == null) {
+                film.setId(nextId++);
+            }
+            if (film.getVersion() == null) {
+                film.setVersion(INITIAL_VERSION);
+            }
+            films.put(film.getId(), film, film.getVersion());
+        }
+        version.incrementAndGet();
+        return newFilms;
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        if (film.getId() == null) {
+            return Optional.empty();
+        }
+        long updated = films.replace(film.getId(), film, film.getVersion());
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        film.setVersion(updated);
+        version.incrementAndGet();
+        return Optional.of(film);
+    }
+
+    @Override
+    public void clear() {
+        films.clear();
+        version.incrementAndGet();
+        idAllocator.reset();
+    }
+
+    /**
+     * Heap taken by the stored films, see {@link PackedTable#heapBytes()}.
+     */
+    public long heapBytes() {
+        return films.heapBytes();
+    }
+
+    private Collection<Film> view(long afterId) {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Film> iterator() {
+                return films.iterator(afterId);
+            }
+
+            @Override
+            public int size() {
+                if (afterId == Long.MIN_VALUE) {
+                    return films.size();
+                }
+                int size = 0;
+                for (Iterator<Film> it = iterator(); it.hasNext(); it.next()) {
+                    size++;
+                }
+                return size;
+            }
+        };
+    }
+}
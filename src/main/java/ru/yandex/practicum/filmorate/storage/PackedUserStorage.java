@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.packed.UserRowCodec;
+import ru.yandex.practicum.filmorate.storage.packed.PackedTable;
+import ru.yandex.practicum.filmorate.storage.packed.RowCodec;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users in a {@link PackedTable} instead of one object graph per user, for large collections
+ * held in memory. Enabled with {@code filmorate.storage.mode=packed}. Every read builds a new
+ * {@link User}, so changing a returned user does not change the stored one.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "packed")
+public class PackedUserStorage implements UserStorage {
+
+    private static final long INITIAL_VERSION = 1;
+    private static final String BIRTHDAY_OUT_OF_RANGE = "Ошибка при создании пользователя: дата рождения "
+            + "пользователя должна быть не раньше " + RowCodec.FIRST_DATE;
+
+    private final PackedTable<User> users = new PackedTable<>(new UserRowCodec(), "Пользователь");
+    private final IdAllocator idAllocator = new IdAllocator();
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public Collection<User> findAll() {
+        return view(Long.MIN_VALUE);
+    }
+
+    @Override
+    public Collection<User> findAfter(int id) {
+        return view(id);
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return users.get(id);
+    }
+
+    @Override
+    public int count() {
+        return users.size();
+    }
+
+    @Override
+    public String checkStorable(User user) {
+        return RowCodec.fitsDate(user.getBirthday()) ? null : BIRTHDAY_OUT_OF_RANGE;
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public User create(User user) {
+        if (user.getId() == null) {
+            user.setId(idAllocator.next());
+        } else {
+            idAllocator.reserve(user.getId());
+        }
+        if (user.getVersion() == null) {
+            user.setVersion(INITIAL_VERSION);
+        }
+        users.put(user.getId(), user, user.getVersion());
+        version.incrementAndGet();
+        return user;
+    }
+
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        int withoutId = 0;
+        for (User user : newUsers) {
+            if (user.getId() == null) {
+                withoutId++;
+            } else {
+                idAllocator.reserve(user.getId());
+            }
+        }
+        int nextId = idAllocator.nextBlock(withoutId);
+        for (User user : newUsers) {
+            if (user.getId() == null) {
+                user.setId(nextId++);
+            }
+            if (user.getVersion() == null) {
+                user.setVersion(INITIAL_VERSION);
+            }
+            users.put(user.getId(), user, user.getVersion());
+        }
+        version.incrementAndGet();
+        return newUsers;
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        if (user.getId() == null) {
+            return Optional.empty();
+        }
+        long updated = users.replace(user.getId(), user, user.getVersion());
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        user.setVersion(updated);
+        version.incrementAndGet();
+        return Optional.of(user);
+    }
+
+    @Override
+    public void clear() {
+        users.clear();
+        version.incrementAndGet();
+        idAllocator.reset();
+    }
+
+    /**
+     * Heap taken by the stored users, see {@link PackedTable#heapBytes()}.
+     */
+    public long heapBytes() {
+        return users.heapBytes();
+    }
+
+    private Collection<User> view(long afterId) {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<User> iterator() {
+                return users.iterator(afterId);
+            }
+
+            @Override
+            public int size() {
+                if (afterId == Long.MIN_VALUE) {
+                    return users.size();
+                }
+                int size = 0;
+                for (Iterator<User> it = iterator(); it.hasNext(); it.next()) {
+                    size++;
+                }
+                return size;
+            }
+        };
+    }
+}
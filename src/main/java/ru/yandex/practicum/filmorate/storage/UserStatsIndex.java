@@ -0,0 +1,145 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.DomainCount;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserStats;
+import ru.yandex.practicum.filmorate.storage.sketch.CountMinSketch;
+import ru.yandex.practicum.filmorate.storage.sketch.KeyCounts;
+import ru.yandex.practicum.filmorate.storage.sketch.LongSlots;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * User base aggregates kept up to date on every write: users per birth year and email
+ * domains counted in a count-min sketch. The sketch cannot list its keys, so up to
+ * {@value #CANDIDATES} domains likely to be on top are kept by name; when the list doubles,
+ * the writer that notices trims it back to the best estimates unless another one already
+ * does. Each user's last counted birth year and domain hash are kept packed in one long, so
+ * an update takes the old values out. Readers take no locks.
+ */
+@Component
+public class UserStatsIndex {
+
+    private static final int STRIPES = 64;
+    private static final int CANDIDATES = 256;
+    private static final long PRESENT = 1L << 63;
+    private static final int NO_YEAR = 0x7FFF;
+
+    private final LongSlots counted = new LongSlots();
+    private final LongAdder users = new LongAdder();
+    private final KeyCounts byYear = new KeyCounts();
+    private final CountMinSketch domains = new CountMinSketch();
+    private final Map<String, Boolean> candidates = new ConcurrentHashMap<>();
+    private final ReentrantLock trimming = new ReentrantLock();
+    private volatile long candidateThreshold;
+    private final Object[] stripes = newStripes();
+
+    public void reindex(int userId, Supplier<Optional<User>> current) {
+        synchronized (stripes[Math.floorMod(userId, STRIPES)]) {
+            Optional<User> user = current.get();
+            long state = user.map(UserStatsIndex::state).orElse(0L);
+            long old = counted.getAndSet(userId, state);
+            if (old == state) {
+                return;
+            }
+            count(old, -1);
+            count(state, 1);
+            user.map(User::getEmail).map(UserStatsIndex::domain).ifPresent(this::offer);
+        }
+    }
+
+    /**
+     * @param topDomains how many domains to list, at most {@value #CANDIDATES}
+     */
+    public UserStats getStats(int topDomains) {
+        List<DomainCount> top = new ArrayList<>();
+        for (String domain : candidates.keySet()) {
+            long estimate = domains.estimate(CountMinSketch.hash(domain));
+            if (estimate > 0) {
+                top.add(new DomainCount(domain, estimate));
+            }
+        }
+        top.sort(Comparator.comparingLong(DomainCount::getUsers).reversed().thenComparing(DomainCount::getDomain));
+        return new UserStats(users.sum(), byYear.snapshot(), top.subList(0, Math.min(topDomains, top.size())));
+    }
+
+    public void clear() {
+        counted.clear();
+        users.reset();
+        byYear.clear();
+        domains.clear();
+        candidates.clear();
+        candidateThreshold = 0;
+    }
+
+    private void count(long state, int delta) {
+        if (state == 0) {
+            return;
+        }
+        users.add(delta);
+        int year = (int) (state >>> 48 & 0x7FFF);
+        if (year != NO_YEAR) {
+            byYear.add(year, delta);
+        }
+        long domainHash = state & 0xFFFF_FFFF_FFFFL;
+        if (domainHash != 0) {
+            domains.add(domainHash, delta);
+        }
+    }
+
+    private void offer(String domain) {
+        if (candidates.containsKey(domain)) {
+            return;
+        }
+        if (candidates.size() < CANDIDATES || domains.estimate(CountMinSketch.hash(domain)) > candidateThreshold) {
+            candidates.put(domain, Boolean.TRUE);
+        }
+        if (candidates.size() > 2 * CANDIDATES && trimming.tryLock()) {
+            try {
+                trim();
+            } finally {
+                trimming.unlock();
+            }
+        }
+    }
+
+    private void trim() {
+        List<Map.Entry<String, Long>> estimates = new ArrayList<>();
+        for (String domain : candidates.keySet()) {
+            estimates.add(Map.entry(domain, domains.estimate(CountMinSketch.hash(domain))));
+        }
+        estimates.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (int i = CANDIDATES; i < estimates.size(); i++) {
+            candidates.remove(estimates.get(i).getKey());
+        }
+        candidateThreshold = estimates.get(CANDIDATES - 1).getValue();
+    }
+
+    /**
+     * Presence bit, 15 bits of birth year and a 48-bit hash of the email domain, 0 without one.
+     */
+    private static long state(User user) {
+        int year = user.getBirthday() == null ? NO_YEAR : user.getBirthday().getYear();
+        long state = PRESENT | (long) (year >= 0 && year < NO_YEAR ? year : NO_YEAR) << 48;
+        String domain = user.getEmail() == null ? null : domain(user.getEmail());
+        return domain == null ? state : state | CountMinSketch.hash(domain);
+    }
+
+    private static String domain(String email) {
+        int at = email.lastIndexOf('@');
+        return at < 0 || at == email.length() - 1 ? null : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static Object[] newStripes() {
+        Object[] stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        return stripes;
+    }
+}
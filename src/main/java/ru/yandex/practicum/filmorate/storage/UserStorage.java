@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserStorage {
+
+    Collection<User> findAll();
+
+    Collection<User> findAfter(int id);
+
+    Optional<User> findById(int id);
+
+    int count();
+
+    /**
+     * Grows with every change of the collection, so equal versions mean equal contents.
+     */
+    long version();
+
+    User create(User user);
+
+    /**
+     * Stores a validated batch of new entities. The batch is applied as a whole: it is
+     * logged as one record, and the version changes once, after the last item is stored.
+     * Items still become visible one by one, so a concurrent read may see part of the batch.
+     */
+    List<User> createAll(List<User> users);
+
+    /**
+     * Replaces the stored user and increments its version. When the given user carries
+     * a version, the replacement is a compare-and-set against it and a stale one is
+     * rejected with a {@link ru.yandex.practicum.filmorate.exception.ConflictException}.
+     */
+    Optional<User> update(User user);
+
+    void clear();
+
+    /**
+     * The message of a limit of this storage that the user breaks, or null. Only packed
+     * storage has such limits.
+     */
+    default String checkStorable(User user) {
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash indexes of taken emails (case-insensitive) and logins. A key is claimed with
+ * putIfAbsent, so two concurrent requests for the same key cannot both win. Users that
+ * do not have an ID yet claim keys under a negative token and are rebound once stored.
+ */
+@Component
+public class UserUniqueIndex {
+
+    private final Map<String, Integer> emails = new ConcurrentHashMap<>();
+    private final Map<String, Integer> logins = new ConcurrentHashMap<>();
+    private final AtomicInteger tokens = new AtomicInteger();
+
+    public int nextToken() {
+        return -1 - (tokens.getAndIncrement() & Integer.MAX_VALUE);
+    }
+
+    public void claim(User user, int owner) {
+        String email = emailKey(user);
+        Integer emailOwner = emails.putIfAbsent(email, owner);
+        if (emailOwner != null && emailOwner != owner) {
+            throw new ConflictException("Пользователь с email " + user.getEmail() + " уже существует");
+        }
+        Integer loginOwner = logins.putIfAbsent(user.getLogin(), owner);
+        if (loginOwner != null && loginOwner != owner) {
+            if (emailOwner == null) {
+                emails.remove(email, owner);
+            }
+            throw new ConflictException("Пользователь с логином " + user.getLogin() + " уже существует");
+        }
+    }
+
+    public void rebind(User user, int from, int to) {
+        emails.replace(emailKey(user), from, to);
+        logins.replace(user.getLogin(), from, to);
+    }
+
+    public void release(User user, int owner) {
+        emails.remove(emailKey(user), owner);
+        logins.remove(user.getLogin(), owner);
+    }
+
+    /**
+     * Frees the keys of {@code old} that {@code current} no longer uses.
+     */
+    public void releaseStale(User old, User current, int owner) {
+        if (!emailKey(old).equals(emailKey(current))) {
+            emails.remove(emailKey(old), owner);
+        }
+        if (!old.getLogin().equals(current.getLogin())) {
+            logins.remove(old.getLogin(), owner);
+        }
+    }
+
+    public boolean isEmailTaken(User user) {
+        return emails.containsKey(emailKey(user));
+    }
+
+    public boolean isLoginTaken(User user) {
+        return logins.containsKey(user.getLogin());
+    }
+
+    public void clear() {
+        emails.clear();
+        logins.clear();
+    }
+
+    private static String emailKey(User user) {
+        return user.getEmail().toLowerCase(Locale.ROOT);
+    }
+}
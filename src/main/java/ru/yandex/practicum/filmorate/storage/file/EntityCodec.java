@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage.file;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+public interface EntityCodec<T> {
+
+    void write(DataOutput out, T entity) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Grows the buffer as bytes arrive, so a damaged length fails at the end of the input
+     * instead of allocating whatever it claims.
+     */
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Некорректная длина строки: " + length);
+        }
+        byte[] bytes = new byte[Math.min(length, 64 * 1024)];
+        int read = 0;
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            }
+            in.readFully(bytes, read, bytes.length - read);
+            read = bytes.length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeDate(DataOutput out, LocalDate value) throws IOException {
+        out.writeInt(Math.toIntExact(value.toEpochDay()));
+    }
+
+    static LocalDate readDate(DataInput in) throws IOException {
+        return LocalDate.ofEpochDay(in.readInt());
+    }
+}
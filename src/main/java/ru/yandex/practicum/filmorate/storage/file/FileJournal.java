@@ -0,0 +1,219 @@
+package ru.yandex.practicum.filmorate.storage.file;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Durability for an in-memory collection: every write goes to a {@link WriteAheadLog},
+ * and {@link #snapshot} periodically compacts the logs into a {@link SnapshotFile}.
+ * Files of one generation are named {@code <name>.<generation>.wal} and
+ * {@code <name>.<generation>.snapshot}; a snapshot of generation N covers every log
+ * older than N, so recovery loads the newest snapshot and replays the logs from its
+ * generation on. Log records are full entity states, which makes replay idempotent.
+ */
+@Slf4j
+public class FileJournal<T> implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte BATCH = 2;
+    private static final String LOG_SUFFIX = ".wal";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int STRIPES = 64;
+
+    private final Path dir;
+    private final String name;
+    private final EntityCodec<T> codec;
+    private final boolean sync;
+    private final ReadWriteLock generationLock = new ReentrantReadWriteLock();
+    private final Object[] stripes = new Object[STRIPES];
+    private final AtomicLong recordsSinceSnapshot = new AtomicLong();
+    private WriteAheadLog wal;
+    private long generation;
+
+    public FileJournal(Path dir, String name, EntityCodec<T> codec, boolean sync) {
+        this.dir = dir;
+        this.name = name;
+        this.codec = codec;
+        this.sync = sync;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public void recover(Consumer<T> upsert) throws IOException {
+        Files.createDirectories(dir);
+        long started = System.nanoTime();
+        List<Long> snapshots = generations(SNAPSHOT_SUFFIX);
+        List<Long> logs = generations(LOG_SUFFIX);
+        long snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        long restored = 0;
+        if (!snapshots.isEmpty()) {
+            restored += SnapshotFile.read(file(snapshotGeneration, SNAPSHOT_SUFFIX), codec, upsert);
+        }
+        long replayed = 0;
+        for (long logGeneration : logs) {
+            if (logGeneration >= snapshotGeneration) {
+                replayed += WriteAheadLog.replay(file(logGeneration, LOG_SUFFIX), (type, buffer, offset, length) -> {
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer, offset, length));
+                    int count = type == BATCH ? in.readInt() : 1;
+                    for (int i = 0; i < count; i++) {
+                        upsert.accept(codec.read(in));
+                    }
+                });
+            }
+        }
+        long lastLog = logs.isEmpty() ? 0 : logs.get(logs.size() - 1);
+        generation = Math.max(snapshotGeneration, lastLog) + 1;
+        wal = WriteAheadLog.create(file(generation, LOG_SUFFIX), sync);
+        recordsSinceSnapshot.set(replayed);
+        log.info("Хранилище {} восстановлено за {} мс: {} записей из снимка, {} из журнала",
+                name, (System.nanoTime() - started) / 1_000_000, restored, replayed);
+    }
+
+    /**
+     * Logs the entity {@code prepare} returns, if any, and only then passes it to
+     * {@code apply}, as one atomic step with respect to other writes of the same {@code id}.
+     * {@code prepare} must not change what readers see: when the log cannot be written,
+     * nothing is applied.
+     */
+    public T write(int id, Supplier<T> prepare, Consumer<T> apply) {
+        generationLock.readLock().lock();
+        try {
+            synchronized (stripes[Math.floorMod(id, STRIPES)]) {
+                T entity = prepare.get();
+                if (entity != null) {
+                    wal.append(PUT, encode(entity));
+                    recordsSinceSnapshot.incrementAndGet();
+                    apply.accept(entity);
+                }
+                return entity;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            generationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Logs {@code entities} as a single record and applies them while all other writes
+     * are held back, so a batch is recovered either completely or not at all.
+     */
+    public void writeAll(List<T> entities, Runnable apply) {
+        generationLock.writeLock().lock();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 * entities.size() + Integer.BYTES);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(entities.size());
+            for (T entity : entities) {
+                codec.write(out, entity);
+            }
+            wal.append(BATCH, bytes.toByteArray());
+            recordsSinceSnapshot.addAndGet(entities.size());
+            apply.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            generationLock.writeLock().unlock();
+        }
+    }
+
+    public synchronized void snapshot(Iterable<T> entities) throws IOException {
+        if (recordsSinceSnapshot.get() == 0) {
+            return;
+        }
+        long snapshotGeneration = rotate(() -> recordsSinceSnapshot.set(0));
+        long count = SnapshotFile.write(file(snapshotGeneration, SNAPSHOT_SUFFIX), codec, entities);
+        deleteOlderThan(snapshotGeneration);
+        log.info("Снимок хранилища {} поколения {} записан: {} записей", name, snapshotGeneration, count);
+    }
+
+    public synchronized void reset(Runnable clear) throws IOException {
+        long newGeneration = rotate(() -> {
+            clear.run();
+            recordsSinceSnapshot.set(0);
+        });
+        SnapshotFile.write(file(newGeneration, SNAPSHOT_SUFFIX), codec, List.of());
+        deleteOlderThan(newGeneration);
+    }
+
+    @Override
+    public void close() throws IOException {
+        generationLock.writeLock().lock();
+        try {
+            wal.close();
+            if (recordsSinceSnapshot.get() == 0) {
+                Files.deleteIfExists(file(generation, LOG_SUFFIX));
+            }
+        } finally {
+            generationLock.writeLock().unlock();
+        }
+    }
+
+    private long rotate(Runnable whileBlocked) throws IOException {
+        generationLock.writeLock().lock();
+        try {
+            WriteAheadLog next = WriteAheadLog.create(file(generation + 1, LOG_SUFFIX), sync);
+            wal.close();
+            wal = next;
+            generation++;
+            whileBlocked.run();
+            return generation;
+        } finally {
+            generationLock.writeLock().unlock();
+        }
+    }
+
+    private void deleteOlderThan(long oldestKept) throws IOException {
+        for (long old : generations(LOG_SUFFIX)) {
+            if (old < oldestKept) {
+                Files.deleteIfExists(file(old, LOG_SUFFIX));
+            }
+        }
+        for (long old : generations(SNAPSHOT_SUFFIX)) {
+            if (old < oldestKept) {
+                Files.deleteIfExists(file(old, SNAPSHOT_SUFFIX));
+            }
+        }
+    }
+
+    private byte[] encode(T entity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        codec.write(new DataOutputStream(bytes), entity);
+        return bytes.toByteArray();
+    }
+
+    private Path file(long fileGeneration, String suffix) {
+        return dir.resolve(name + "." + fileGeneration + suffix);
+    }
+
+    private List<Long> generations(String suffix) throws IOException {
+        String prefix = name + ".";
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(file -> file.startsWith(prefix) && file.endsWith(suffix))
+                    .map(file -> file.substring(prefix.length(), file.length() - suffix.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.storage.file;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static ru.yandex.practicum.filmorate.storage.file.EntityCodec.*;
+
+public class FilmCodec implements EntityCodec<Film> {
+
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 1 << 1;
+    private static final int RELEASE_DATE = 1 << 2;
+    private static final int DURATION = 1 << 3;
+    private static final int VERSION = 1 << 4;
+
+    @Override
+    public void write(DataOutput out, Film film) throws IOException {
+        int present = (film.getName() != null ? NAME : 0)
+                | (film.getDescription() != null ? DESCRIPTION : 0)
+                | (film.getReleaseDate() != null ? RELEASE_DATE : 0)
+                | (film.getDuration() != null ? DURATION : 0)
+                | (film.getVersion() != null ? VERSION : 0);
+        out.writeInt(film.getId());
+        out.writeByte(present);
+        if ((present & NAME) != 0) {
+            writeString(out, film.getName());
+        }
+        if ((present & DESCRIPTION) != 0) {
+            writeString(out, film.getDescription());
+        }
+        if ((present & RELEASE_DATE) != 0) {
+            writeDate(out, film.getReleaseDate());
+        }
+        if ((present & DURATION) != 0) {
+            out.writeInt(film.getDuration());
+        }
+        if ((present & VERSION) != 0) {
+            out.writeLong(film.getVersion());
+        }
+    }
+
+    @Override
+    public Film read(DataInput in) throws IOException {
+        int id = in.readInt();
+        int present = in.readByte();
+        Film film = new Film(id,
+                (present & NAME) != 0 ? readString(in) : null,
+                (present & DESCRIPTION) != 0 ? readString(in) : null,
+                (present & RELEASE_DATE) != 0 ? readDate(in) : null,
+                (present & DURATION) != 0 ? in.readInt() : null);
+        if ((present & VERSION) != 0) {
+            film.setVersion(in.readLong());
+        }
+        return film;
+    }
+}
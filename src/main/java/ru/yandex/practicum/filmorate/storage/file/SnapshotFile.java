@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.storage.file;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x464d5331;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SnapshotFile() {
+    }
+
+    static <T> long write(Path file, EntityCodec<T> codec, Iterable<T> entities) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long count = 0;
+        try (FileOutputStream fileOut = new FileOutputStream(tmp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            for (T entity : entities) {
+                out.writeBoolean(true);
+                codec.write(out, entity);
+                count++;
+            }
+            out.writeBoolean(false);
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    static <T> long read(Path file, EntityCodec<T> codec, Consumer<T> consumer) throws IOException {
+        long count = 0;
+        try (InputStream fileIn = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            CheckedInputStream checked = new CheckedInputStream(fileIn, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Файл не является снимком хранилища: " + file);
+            }
+            while (in.readBoolean()) {
+                consumer.accept(codec.read(in));
+                count++;
+            }
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Снимок хранилища повреждён: " + file);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.storage.file;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static ru.yandex.practicum.filmorate.storage.file.EntityCodec.*;
+
+public class UserCodec implements EntityCodec<User> {
+
+    private static final int EMAIL = 1;
+    private static final int LOGIN = 1 << 1;
+    private static final int NAME = 1 << 2;
+    private static final int BIRTHDAY = 1 << 3;
+    private static final int VERSION = 1 << 4;
+
+    @Override
+    public void write(DataOutput out, User user) throws IOException {
+        int present = (user.getEmail() != null ? EMAIL : 0)
+                | (user.getLogin() != null ? LOGIN : 0)
+                | (user.getName() != null ? NAME : 0)
+                | (user.getBirthday() != null ? BIRTHDAY : 0)
+                | (user.getVersion() != null ? VERSION : 0);
+        out.writeInt(user.getId());
+        out.writeByte(present);
+        if ((present & EMAIL) != 0) {
+            writeString(out, user.getEmail());
+        }
+        if ((present & LOGIN) != 0) {
+            writeString(out, user.getLogin());
+        }
+        if ((present & NAME) != 0) {
+            writeString(out, user.getName());
+        }
+        if ((present & BIRTHDAY) != 0) {
+            writeDate(out, user.getBirthday());
+        }
+        if ((present & VERSION) != 0) {
+            out.writeLong(user.getVersion());
+        }
+    }
+
+    @Override
+    public User read(DataInput in) throws IOException {
+        int id = in.readInt();
+        int present = in.readByte();
+        User user = new User(id,
+                (present & EMAIL) != 0 ? readString(in) : null,
+                (present & LOGIN) != 0 ? readString(in) : null,
+                (present & NAME) != 0 ? readString(in) : null,
+                (present & BIRTHDAY) != 0 ? readDate(in) : null);
+        if ((present & VERSION) != 0) {
+            user.setVersion(in.readLong());
+        }
+        return user;
+    }
+}
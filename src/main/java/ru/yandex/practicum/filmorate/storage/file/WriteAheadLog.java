@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of length-prefixed records in memory-mapped chunks.
+ * A record is {@code [length][crc32][type][payload]}; the length is written last,
+ * so a record torn by a crash is either invisible or fails the checksum.
+ */
+class WriteAheadLog implements Closeable {
+
+    static final int CHUNK_SIZE = 32 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8;
+    private static final int END = 0;
+    private static final int NEXT_CHUNK = -1;
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+
+    private WriteAheadLog(FileChannel channel, boolean sync) throws IOException {
+        this.channel = channel;
+        this.sync = sync;
+        this.chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK_SIZE);
+    }
+
+    static WriteAheadLog create(Path file, boolean sync) throws IOException {
+        return new WriteAheadLog(FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE), sync);
+    }
+
+    synchronized void append(byte type, byte[] payload) throws IOException {
+        int length = payload.length + 1;
+        if (HEADER_SIZE + length > CHUNK_SIZE) {
+            throw new IOException("Запись журнала слишком велика: " + length + " байт");
+        }
+        if (chunk.remaining() < HEADER_SIZE + length) {
+            if (chunk.remaining() >= Integer.BYTES) {
+                chunk.putInt(chunk.position(), NEXT_CHUNK);
+            }
+            chunkStart += CHUNK_SIZE;
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, CHUNK_SIZE);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        int start = chunk.position();
+        chunk.position(start + HEADER_SIZE);
+        chunk.put(type);
+        chunk.put(payload);
+        chunk.putInt(start + Integer.BYTES, (int) crc.getValue());
+        chunk.putInt(start, length);
+        if (sync) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        chunk.force();
+        channel.close();
+    }
+
+    static long replay(Path file, RecordHandler handler) throws IOException {
+        long[] records = new long[1];
+        RecordHandler counting = (type, buffer, offset, length) -> {
+            handler.handle(type, buffer, offset, length);
+            records[0]++;
+        };
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            boolean hasNext = true;
+            for (long start = 0; hasNext && start < size; start += CHUNK_SIZE) {
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, size - start));
+                hasNext = replayChunk(chunk, counting);
+            }
+        }
+        return records[0];
+    }
+
+    /**
+     * Returns {@code true} when the log continues in the next chunk.
+     */
+    private static boolean replayChunk(ByteBuffer chunk, RecordHandler handler) throws IOException {
+        CRC32 crc = new CRC32();
+        while (chunk.remaining() >= HEADER_SIZE) {
+            int start = chunk.position();
+            int length = chunk.getInt(start);
+            if (length == NEXT_CHUNK) {
+                return true;
+            }
+            if (length == END || length < 0 || length > chunk.remaining() - HEADER_SIZE) {
+                return false;
+            }
+            byte[] record = new byte[length];
+            chunk.position(start + HEADER_SIZE);
+            chunk.get(record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != chunk.getInt(start + Integer.BYTES)) {
+                return false;
+            }
+            handler.handle(record[0], record, 1, length - 1);
+        }
+        return true;
+    }
+
+    interface RecordHandler {
+        void handle(byte type, byte[] buffer, int offset, int length) throws IOException;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.storage.packed;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import static ru.yandex.practicum.filmorate.storage.packed.RowCodec.*;
+
+public class FilmRowCodec implements RowCodec<Film> {
+
+    private static final int RELEASE_DATE = 0;
+    private static final int DURATION = 1;
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 1;
+
+    @Override
+    public int intColumns() {
+        return 2;
+    }
+
+    @Override
+    public int textColumns() {
+        return 2;
+    }
+
+    @Override
+    public void toColumns(Film film, int[] ints, String[] texts) {
+        ints[RELEASE_DATE] = fromDate(film.getReleaseDate());
+        ints[DURATION] = fromInteger(film.getDuration());
+        texts[NAME] = film.getName();
+        texts[DESCRIPTION] = film.getDescription();
+    }
+
+    @Override
+    public Film fromColumns(int id, int[] ints, String[] texts, long version) {
+        Film film = new Film(id, texts[NAME], texts[DESCRIPTION], toDate(ints[RELEASE_DATE]),
+                toInteger(ints[DURATION]));
+        film.setVersion(version);
+        return film;
+    }
+}
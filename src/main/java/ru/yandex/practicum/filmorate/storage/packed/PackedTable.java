@@ -0,0 +1,270 @@
+package ru.yandex.practicum.filmorate.storage.packed;
+
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rows kept in columns instead of objects: pages of {@value #PAGE_SIZE} consecutive ids hold
+ * one {@code int[]} per numeric column, a {@code long[]} of versions and, per row, a single
+ * UTF-8 {@code byte[]} with all text fields. Entities are built from the columns only when
+ * read, and a write copies the entity into the columns, so callers never share state with
+ * the table. Each page is guarded by its own monitor; pages are found through a skip list,
+ * which keeps iteration in id order and tolerates sparse ids.
+ */
+public class PackedTable<T> {
+
+    /**
+     * Numeric columns that hold no value (a null Integer or LocalDate) store this.
+     */
+    public static final int NULL = Integer.MIN_VALUE;
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int OFFSET_MASK = PAGE_SIZE - 1;
+
+    private final RowCodec<T> codec;
+    private final String entityName;
+    private final ConcurrentSkipListMap<Integer, Page> pages = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @param entityName subject of the conflict message, e.g. "Фильм"
+     */
+    public PackedTable(RowCodec<T> codec, String entityName) {
+        this.codec = codec;
+        this.entityName = entityName;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public Optional<T> get(int id) {
+        Page page = pages.get(id >> PAGE_BITS);
+        if (page == null) {
+            return Optional.empty();
+        }
+        synchronized (page) {
+            return Optional.ofNullable(page.read(id & OFFSET_MASK, id));
+        }
+    }
+
+    /**
+     * Stores the entity under {@code id}, replacing any row there.
+     */
+    public void put(int id, T entity, long version) {
+        int[] ints = new int[codec.intColumns()];
+        String[] texts = new String[codec.textColumns()];
+        codec.toColumns(entity, ints, texts);
+        byte[] text = encode(texts);
+        Page page = pages.computeIfAbsent(id >> PAGE_BITS, key -> new Page(codec.intColumns()));
+        synchronized (page) {
+            if (page.write(id & OFFSET_MASK, ints, text, version)) {
+                size.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Replaces an existing row. With {@code expectedVersion} the replacement only happens when
+     * the stored version equals it; a mismatch raises {@link ConflictException}.
+     *
+     * @return the new version, or 0 when there is no row with this id
+     */
+    public long replace(int id, T entity, Long expectedVersion) {
+        Page page = pages.get(id >> PAGE_BITS);
+        if (page == null) {
+            return 0;
+        }
+        int[] ints = new int[codec.intColumns()];
+        String[] texts = new String[codec.textColumns()];
+        codec.toColumns(entity, ints, texts);
+        byte[] text = encode(texts);
+        int offset = id & OFFSET_MASK;
+        synchronized (page) {
+            if (page.texts[offset] == null) {
+                return 0;
+            }
+            long current = page.versions[offset];
+            if (expectedVersion != null && expectedVersion != current) {
+                throw new ConflictException(entityName + " с ID " + id + " уже изменён: текущая версия "
+                        + current + ", в запросе " + expectedVersion);
+            }
+            page.write(offset, ints, text, current + 1);
+            return current + 1;
+        }
+    }
+
+    public void clear() {
+        pages.clear();
+        size.set(0);
+    }
+
+    /**
+     * Rows with ids greater than {@code afterId}, in id order. Rows are read a page at a time,
+     * so iteration sees each page as of some moment but not the whole table at once.
+     */
+    public Iterator<T> iterator(long afterId) {
+        return new Iterator<>() {
+            private final Iterator<Map.Entry<Integer, Page>> pageIterator = afterId < Integer.MIN_VALUE
+                    ? pages.entrySet().iterator()
+                    : pages.tailMap((int) afterId >> PAGE_BITS, true).entrySet().iterator();
+            private final List<T> buffer = new ArrayList<>();
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position == buffer.size()) {
+                    if (!pageIterator.hasNext()) {
+                        return false;
+                    }
+                    buffer.clear();
+                    position = 0;
+                    Map.Entry<Integer, Page> entry = pageIterator.next();
+                    int base = entry.getKey() << PAGE_BITS;
+                    Page page = entry.getValue();
+                    synchronized (page) {
+                        for (int offset = 0; offset < PAGE_SIZE; offset++) {
+                            int id = base + offset;
+                            if (id > afterId && page.texts[offset] != null) {
+                                buffer.add(page.read(offset, id));
+                            }
+                        }
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return buffer.get(position++);
+            }
+        };
+    }
+
+    /**
+     * Heap taken by the columns and text, excluding the page index. Walks every page.
+     */
+    public long heapBytes() {
+        long bytes = 0;
+        for (Page page : pages.values()) {
+            synchronized (page) {
+                bytes += page.heapBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Text columns as one array: per field a varint of (UTF-8 length + 1), 0 for null,
+     * followed by the bytes. A row with no text at all is still a non-empty array, which
+     * is how a page tells stored rows from free slots.
+     */
+    static byte[] encode(String[] texts) {
+        byte[][] encoded = new byte[texts.length][];
+        int length = 0;
+        for (int i = 0; i < texts.length; i++) {
+            if (texts[i] != null) {
+                encoded[i] = texts[i].getBytes(StandardCharsets.UTF_8);
+                length += encoded[i].length;
+            }
+            length += varintLength(encoded[i] == null ? 0 : encoded[i].length + 1);
+        }
+        byte[] text = new byte[length];
+        int position = 0;
+        for (byte[] field : encoded) {
+            position = writeVarint(text, position, field == null ? 0 : field.length + 1);
+            if (field != null) {
+                System.arraycopy(field, 0, text, position, field.length);
+                position += field.length;
+            }
+        }
+        return text;
+    }
+
+    static String[] decode(byte[] text, int fields) {
+        String[] texts = new String[fields];
+        int position = 0;
+        for (int i = 0; i < fields; i++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = text[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (value > 0) {
+                texts[i] = new String(text, position, value - 1, StandardCharsets.UTF_8);
+                position += value - 1;
+            }
+        }
+        return texts;
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int writeVarint(byte[] target, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            target[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[position++] = (byte) value;
+        return position;
+    }
+
+    private final class Page {
+        final int[][] ints;
+        final long[] versions = new long[PAGE_SIZE];
+        final byte[][] texts = new byte[PAGE_SIZE][];
+
+        Page(int intColumns) {
+            ints = new int[intColumns][PAGE_SIZE];
+        }
+
+        boolean write(int offset, int[] values, byte[] text, long version) {
+            boolean added = texts[offset] == null;
+            for (int column = 0; column < values.length; column++) {
+                ints[column][offset] = values[column];
+            }
+            texts[offset] = text;
+            versions[offset] = version;
+            return added;
+        }
+
+        T read(int offset, int id) {
+            byte[] text = texts[offset];
+            if (text == null) {
+                return null;
+            }
+            int[] values = new int[ints.length];
+            for (int column = 0; column < values.length; column++) {
+                values[column] = ints[column][offset];
+            }
+            return codec.fromColumns(id, values, decode(text, codec.textColumns()), versions[offset]);
+        }
+
+        long heapBytes() {
+            long bytes = (long) ints.length * (16 + 4L * PAGE_SIZE) + 16 + 8L * PAGE_SIZE + 16 + 4L * PAGE_SIZE;
+            for (byte[] text : texts) {
+                if (text != null) {
+                    bytes += (16 + text.length + 7) & ~7;
+                }
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage.packed;
+
+import java.time.LocalDate;
+
+/**
+ * Maps an entity to the numeric and text columns of a {@link PackedTable} and back.
+ */
+public interface RowCodec<T> {
+
+    /**
+     * Dates are kept as an {@code int} epoch day, and {@link PackedTable#NULL} marks an empty one.
+     */
+    LocalDate FIRST_DATE = LocalDate.ofEpochDay(PackedTable.NULL + 1);
+    LocalDate LAST_DATE = LocalDate.ofEpochDay(Integer.MAX_VALUE);
+
+    int intColumns();
+
+    int textColumns();
+
+    void toColumns(T entity, int[] ints, String[] texts);
+
+    T fromColumns(int id, int[] ints, String[] texts, long version);
+
+    static int fromDate(LocalDate date) {
+        if (date == null) {
+            return PackedTable.NULL;
+        }
+        if (!fitsDate(date)) {
+            throw new IllegalArgumentException("Дата " + date + " не помещается в упакованное хранилище");
+        }
+        return (int) date.toEpochDay();
+    }
+
+    static boolean fitsDate(LocalDate date) {
+        return date == null || !date.isBefore(FIRST_DATE) && !date.isAfter(LAST_DATE);
+    }
+
+    static LocalDate toDate(int epochDay) {
+        return epochDay == PackedTable.NULL ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    static int fromInteger(Integer value) {
+        return value == null ? PackedTable.NULL : value;
+    }
+
+    static Integer toInteger(int value) {
+        return value == PackedTable.NULL ? null : value;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage.packed;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import static ru.yandex.practicum.filmorate.storage.packed.RowCodec.*;
+
+public class UserRowCodec implements RowCodec<User> {
+
+    private static final int BIRTHDAY = 0;
+    private static final int EMAIL = 0;
+    private static final int LOGIN = 1;
+    private static final int NAME = 2;
+
+    @Override
+    public int intColumns() {
+        return 1;
+    }
+
+    @Override
+    public int textColumns() {
+        return 3;
+    }
+
+    @Override
+    public void toColumns(User user, int[] ints, String[] texts) {
+        ints[BIRTHDAY] = fromDate(user.getBirthday());
+        texts[EMAIL] = user.getEmail();
+        texts[LOGIN] = user.getLogin();
+        texts[NAME] = user.getName();
+    }
+
+    @Override
+    public User fromColumns(int id, int[] ints, String[] texts, long version) {
+        User user = new User(id, texts[EMAIL], texts[LOGIN], texts[NAME], toDate(ints[BIRTHDAY]));
+        user.setVersion(version);
+        return user;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.storage.sketch;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch over 48-bit keys: {@value #DEPTH} rows of {@value #WIDTH} counters, one
+ * counter per row picked by double hashing. An estimate is the smallest of the key's counters,
+ * so it never undercounts and overcounts by at most {@code e / WIDTH} of the total with
+ * probability {@code 1 - e^-DEPTH}. Counters are atomic and may be decremented, which removes
+ * a key added before. Sketches of the same shape merge by adding their counters.
+ */
+public class CountMinSketch {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1 << 14;
+
+    private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+
+    /**
+     * 48-bit FNV-1a hash of the lower-cased text, never 0.
+     */
+    public static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            hash = (hash ^ lower.charAt(i)) * 0x100000001b3L;
+        }
+        hash &= 0xFFFF_FFFF_FFFFL;
+        return hash == 0 ? 1 : hash;
+    }
+
+    public void add(long key, long delta) {
+        for (int row = 0; row < DEPTH; row++) {
+            counters.addAndGet(index(key, row), delta);
+        }
+    }
+
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(key, row)));
+        }
+        return Math.max(estimate, 0);
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    private static int index(long key, int row) {
+        int first = (int) (key & 0xFFFFFF);
+        int second = (int) (key >>> 24 & 0xFFFFFF) | 1;
+        return row * WIDTH + ((first + row * second) & (WIDTH - 1));
+    }
+}
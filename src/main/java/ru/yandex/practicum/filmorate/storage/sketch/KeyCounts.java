@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage.sketch;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact counts per int key, for keys with few distinct values such as years.
+ */
+public class KeyCounts {
+
+    private final Map<Integer, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public void add(int key, long delta) {
+        counts.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Keys with a positive count, in key order.
+     */
+    public SortedMap<Integer, Long> snapshot() {
+        SortedMap<Integer, Long> snapshot = new TreeMap<>();
+        counts.forEach((key, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                snapshot.put(key, value);
+            }
+        });
+        return snapshot;
+    }
+
+    public void clear() {
+        counts.clear();
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.storage.sketch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of non-negative ints in fixed buckets: one bucket per value below {@value #EXACT},
+ * above that {@value #SUB_BUCKETS} buckets per power of two, so a value is off by less than
+ * 1/{@value #SUB_BUCKETS} of itself. Unlike a t-digest the buckets can be decremented, which
+ * lets an updated value leave the distribution; histograms merge by adding their buckets.
+ * Updates are atomic; read through {@link #snapshot()}.
+ */
+public class LogLinearHistogram {
+
+    private static final int EXACT_BITS = 10;
+    private static final int EXACT = 1 << EXACT_BITS;
+    private static final int SUB_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = EXACT + (31 - EXACT_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    public void add(int value, long delta) {
+        buckets.addAndGet(index(value), delta);
+        sum.add(value * delta);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        return new Snapshot(counts, count, sum.sum());
+    }
+
+    public void clear() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        sum.reset();
+    }
+
+    static int index(int value) {
+        if (value < EXACT) {
+            return Math.max(value, 0);
+        }
+        int power = 31 - Integer.numberOfLeadingZeros(value);
+        return EXACT + (power - EXACT_BITS) * SUB_BUCKETS + ((value >>> (power - SUB_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    static long lowerBound(int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int power = EXACT_BITS + (index - EXACT) / SUB_BUCKETS;
+        int sub = (index - EXACT) % SUB_BUCKETS;
+        return (1L << power) + ((long) sub << (power - SUB_BITS));
+    }
+
+    /**
+     * Buckets as of one pass over them. Concurrent updates may be half in it.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+
+        private Snapshot(long[] counts, long count, long sum) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Smallest bucket bound with at least {@code quantile} of the values at or below it;
+         * 0 when empty.
+         */
+        public long percentile(double quantile) {
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return lowerBound(i);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Values in [from, to); buckets wider than one value count where they start.
+         */
+        public long countBetween(long from, long to) {
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                long bound = lowerBound(i);
+                if (bound >= to) {
+                    break;
+                }
+                if (bound >= from) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.storage.sketch;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One long per id, 0 when unset, in pages of {@value #PAGE_SIZE} consecutive ids: eight
+ * bytes per entity for dense ids instead of a map entry.
+ */
+public class LongSlots {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final ConcurrentHashMap<Integer, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    /**
+     * @return the previous value
+     */
+    public long getAndSet(int id, long value) {
+        AtomicLongArray page = value == 0
+                ? pages.get(id >> PAGE_BITS)
+                : pages.computeIfAbsent(id >> PAGE_BITS, key -> new AtomicLongArray(PAGE_SIZE));
+        return page == null ? 0 : page.getAndSet(id & (PAGE_SIZE - 1), value);
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.transfer;
+
+import ru.yandex.practicum.filmorate.storage.file.EntityCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the format of {@link BinaryEncoder} from chunks of any size, handing every entity
+ * to the consumer as soon as it is complete. Only an unfinished entity is kept between
+ * chunks. The count and checksum at the end are checked by {@link #finish()}; entities
+ * before a damaged spot have been handed over by then.
+ */
+public class BinaryDecoder<T> {
+
+    private static final int MAX_ENTITY_LENGTH = 1 << 20;
+
+    private final int magic;
+    private final EntityCodec<T> codec;
+    private final Consumer<T> consumer;
+    private final CRC32 checksum = new CRC32();
+    private final Frame frame = new Frame();
+    private final DataInputStream frameIn = new DataInputStream(frame);
+    private byte[] pending = new byte[64 * 1024];
+    private int pendingLength;
+    private long count;
+    private boolean headerRead;
+    private boolean done;
+
+    public BinaryDecoder(int magic, EntityCodec<T> codec, Consumer<T> consumer) {
+        this.magic = magic;
+        this.codec = codec;
+        this.consumer = consumer;
+    }
+
+    public void feed(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            if (done) {
+                throw new IOException("Данные после конца файла импорта");
+            }
+            int length = Math.min(source.remaining(), pending.length - pendingLength);
+            if (length == 0) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+                continue;
+            }
+            source.get(pending, pendingLength, length);
+            pendingLength += length;
+            consume();
+        }
+    }
+
+    /**
+     * @return the number of entities read
+     */
+    public long finish() throws IOException {
+        if (!done) {
+            throw new IOException("Файл импорта оборван после " + count + " записей");
+        }
+        return count;
+    }
+
+    private void consume() throws IOException {
+        int position = 0;
+        while (!done) {
+            if (!headerRead) {
+                if (pendingLength - position < 4) {
+                    break;
+                }
+                if (readInt(position) != magic) {
+                    throw new IOException("Неизвестный формат файла импорта");
+                }
+                checksum.update(pending, position, 4);
+                position += 4;
+                headerRead = true;
+                continue;
+            }
+            if (pendingLength - position < 4) {
+                break;
+            }
+            int length = readInt(position);
+            if (length == 0) {
+                if (pendingLength - position < 20) {
+                    break;
+                }
+                long expectedCount = readLong(position + 4);
+                checksum.update(pending, position, 12);
+                if (expectedCount != count || readLong(position + 12) != checksum.getValue()) {
+                    throw new IOException("Файл импорта повреждён: прочитано " + count + " записей из " + expectedCount);
+                }
+                position += 20;
+                done = true;
+                break;
+            }
+            if (length < 0 || length > MAX_ENTITY_LENGTH) {
+                throw new IOException("Некорректная длина записи " + length + " после " + count + " записей");
+            }
+            if (pendingLength - position < 4 + length) {
+                break;
+            }
+            checksum.update(pending, position, 4 + length);
+            frame.reset(pending, position + 4, length);
+            T entity;
+            try {
+                entity = codec.read(frameIn);
+            } catch (IOException | RuntimeException e) {
+                throw new IOException("Запись " + count + " повреждена: " + e.getMessage(), e);
+            }
+            if (frame.available() != 0) {
+                throw new IOException("Запись " + count + " не совпадает со своей длиной");
+            }
+            count++;
+            consumer.accept(entity);
+            position += 4 + length;
+        }
+        System.arraycopy(pending, position, pending, 0, pendingLength - position);
+        pendingLength -= position;
+        if (done && pendingLength > 0) {
+            throw new IOException("Данные после конца файла импорта");
+        }
+    }
+
+    private int readInt(int position) {
+        return (pending[position] & 0xFF) << 24 | (pending[position + 1] & 0xFF) << 16
+                | (pending[position + 2] & 0xFF) << 8 | pending[position + 3] & 0xFF;
+    }
+
+    private long readLong(int position) {
+        return (long) readInt(position) << 32 | readInt(position + 4) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Stream over one entity of the pending bytes, reused for every entity.
+     */
+    private static final class Frame extends ByteArrayInputStream {
+
+        Frame() {
+            super(new byte[0]);
+        }
+
+        void reset(byte[] bytes, int offset, int length) {
+            buf = bytes;
+            pos = offset;
+            mark = offset;
+            count = offset + length;
+        }
+    }
+}
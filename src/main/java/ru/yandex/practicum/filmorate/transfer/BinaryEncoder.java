@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.transfer;
+
+import ru.yandex.practicum.filmorate.storage.file.EntityCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+/**
+ * Writes entities in the export format chunk by chunk, so memory stays the same however
+ * many there are. The format is:
+ * <pre>
+ * int magic, per entity type
+ * per entity: int length &gt; 0, then the entity as written by its {@link EntityCodec}
+ * int 0, long number of entities
+ * long CRC32 of everything before it
+ * </pre>
+ * Big-endian, as {@link java.io.DataOutput} writes it.
+ */
+public class BinaryEncoder<T> {
+
+    private final EntityCodec<T> codec;
+    private final Iterator<T> entities;
+    private final CRC32 checksum = new CRC32();
+    private final Frame frame = new Frame();
+    private final DataOutputStream frameOut = new DataOutputStream(frame);
+    private int framePosition;
+    private boolean checksummed = true;
+    private long count;
+    private State state = State.HEADER;
+
+    public BinaryEncoder(int magic, EntityCodec<T> codec, Iterator<T> entities) {
+        this.codec = codec;
+        this.entities = entities;
+        try {
+            frameOut.writeInt(magic);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fills the remaining space of {@code target}, splitting entities across calls if needed.
+     *
+     * @return false when this call wrote the end of the stream; the target may still hold
+     * its last bytes
+     */
+    public boolean fill(ByteBuffer target) {
+        while (target.hasRemaining()) {
+            if (framePosition == frame.size() && !nextFrame()) {
+                return false;
+            }
+            int length = Math.min(target.remaining(), frame.size() - framePosition);
+            target.put(frame.bytes(), framePosition, length);
+            if (checksummed) {
+                checksum.update(frame.bytes(), framePosition, length);
+            }
+            framePosition += length;
+        }
+        return framePosition < frame.size() || state != State.DONE;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    private boolean nextFrame() {
+        frame.reset();
+        framePosition = 0;
+        try {
+            if (state == State.HEADER || state == State.ENTITIES) {
+                state = State.ENTITIES;
+                if (entities.hasNext()) {
+                    frameOut.writeInt(0);
+                    codec.write(frameOut, entities.next());
+                    frame.writeLengthPrefix();
+                    count++;
+                    return true;
+                }
+                frameOut.writeInt(0);
+                frameOut.writeLong(count);
+                state = State.TRAILER;
+                return true;
+            }
+            if (state == State.TRAILER) {
+                frameOut.writeLong(checksum.getValue());
+                checksummed = false;
+                state = State.DONE;
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private enum State {
+        HEADER, ENTITIES, TRAILER, DONE
+    }
+
+    /**
+     * Reused buffer of the entity being written, with room for its length in front.
+     */
+    private static final class Frame extends ByteArrayOutputStream {
+
+        Frame() {
+            super(256);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+
+        void writeLengthPrefix() {
+            int length = count - 4;
+            buf[0] = (byte) (length >>> 24);
+            buf[1] = (byte) (length >>> 16);
+            buf[2] = (byte) (length >>> 8);
+            buf[3] = (byte) length;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.transfer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code export} and {@code import} commands of the application jar:
+ * <pre>
+ * java -jar filmorate.jar export --films=films.bin --users=users.bin --url=http://host:8080
+ * java -jar filmorate.jar import --films=films.bin --filmorate.storage.mode=file --filmorate.storage.file.dir=data
+ * </pre>
+ * With {@code --url} the files are streamed to or from a running node. Without it the
+ * application starts with no web server over a file storage and reads or writes it directly;
+ * other arguments are passed on to it as usual.
+ */
+@Slf4j
+public final class CatalogCli {
+
+    private static final String EXPORT = "export";
+    private static final String IMPORT = "import";
+
+    private CatalogCli() {
+    }
+
+    public static boolean isCommand(String[] args) {
+        return args.length > 0 && (EXPORT.equals(args[0]) || IMPORT.equals(args[0]));
+    }
+
+    /**
+     * @return the process exit code
+     */
+    public static int run(Class<?> application, String[] args) {
+        boolean export = EXPORT.equals(args[0]);
+        Path films = null;
+        Path users = null;
+        String url = null;
+        List<String> springArgs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--films=")) {
+                films = Path.of(args[i].substring("--films=".length()));
+            } else if (args[i].startsWith("--users=")) {
+                users = Path.of(args[i].substring("--users=".length()));
+            } else if (args[i].startsWith("--url=")) {
+                url = args[i].substring("--url=".length()).replaceAll("/+$", "");
+            } else {
+                springArgs.add(args[i]);
+            }
+        }
+        if (films == null && users == null) {
+            log.error("Укажите файлы: --films=<файл> и/или --users=<файл>");
+            return 2;
+        }
+        try {
+            if (url != null) {
+                remote(url, export, films, users);
+            } else {
+                local(application, springArgs.toArray(new String[0]), export, films, users);
+            }
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось выполнить {}: {}", args[0], e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    private static void local(Class<?> application, String[] args, boolean export, Path films, Path users)
+            throws IOException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            String mode = context.getEnvironment().getProperty("filmorate.storage.mode", "memory");
+            if (!"file".equals(mode)) {
+                throw new IllegalStateException("без --url нужен режим хранения file, а не " + mode);
+            }
+            CatalogTransfer transfer = context.getBean(CatalogTransfer.class);
+            if (export) {
+                if (films != null) {
+                    write(transfer.exportFilms(), films, "фильмов");
+                }
+                if (users != null) {
+                    write(transfer.exportUsers(), users, "пользователей");
+                }
+            } else {
+                if (users != null) {
+                    read(transfer.importUsers(), users, "пользователей");
+                }
+                if (films != null) {
+                    read(transfer.importFilms(), films, "фильмов");
+                }
+            }
+        }
+    }
+
+    private static void write(BinaryEncoder<?> encoder, Path file, String what) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long count = CatalogTransfer.write(encoder, channel);
+            log.info("Экспорт {}: {} записей, {} байт за {} мс", what, count, channel.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static void read(CatalogTransfer.Import target, Path file, String what) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ImportResult result = CatalogTransfer.read(channel, target);
+            log.info("Импорт {} за {} мс: {}", what, (System.nanoTime() - start) / 1_000_000, result);
+        }
+    }
+
+    private static void remote(String url, boolean export, Path films, Path users)
+            throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
+        if (export) {
+            if (films != null) {
+                download(client, url + "/films/export", films);
+            }
+            if (users != null) {
+                download(client, url + "/users/export", users);
+            }
+        } else {
+            if (users != null) {
+                upload(client, url + "/users/import", users);
+            }
+            if (films != null) {
+                upload(client, url + "/films/import", films);
+            }
+        }
+    }
+
+    private static void download(HttpClient client, String url, Path file) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<Path> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofFile(file));
+        if (response.statusCode() != 200) {
+            String body = Files.readString(file, StandardCharsets.UTF_8);
+            Files.delete(file);
+            throw new IOException(url + " ответил " + response.statusCode() + ": " + body);
+        }
+        log.info("{} сохранён в {}: {} байт за {} мс", url, file, Files.size(file),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void upload(HttpClient client, String url, Path file) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/octet-stream")
+                        .POST(HttpRequest.BodyPublishers.ofFile(file))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException(url + " ответил " + response.statusCode() + ": " + response.body());
+        }
+        log.info("{} загружен в {} за {} мс: {}", file, url, (System.nanoTime() - start) / 1_000_000,
+                response.body());
+    }
+}
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.transfer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.ItemError;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.file.EntityCodec;
+import ru.yandex.practicum.filmorate.storage.file.FilmCodec;
+import ru.yandex.practicum.filmorate.storage.file.UserCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export and import of all films or all users in the format of {@link BinaryEncoder}.
+ * Imported entities keep their IDs and versions, so importing the same file twice changes
+ * nothing; a record that fails validation is reported and skipped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogTransfer {
+
+    public static final int FILMS = 0x464c4d31;
+    public static final int USERS = 0x55535231;
+    public static final int CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_ERRORS = 100;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmService filmService;
+    private final UserService userService;
+
+    public BinaryEncoder<Film> exportFilms() {
+        return new BinaryEncoder<>(FILMS, new FilmCodec(), filmStorage.findAll().iterator());
+    }
+
+    public BinaryEncoder<User> exportUsers() {
+        return new BinaryEncoder<>(USERS, new UserCodec(), userStorage.findAll().iterator());
+    }
+
+    public Import importFilms() {
+        return new Import(FILMS, new FilmCodec(), filmService::restore);
+    }
+
+    public Import importUsers() {
+        return new Import(USERS, new UserCodec(), userService::restore);
+    }
+
+    /**
+     * Writes the whole export through one reused direct buffer.
+     *
+     * @return the number of entities written
+     */
+    public static long write(BinaryEncoder<?> encoder, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        boolean more;
+        do {
+            more = encoder.fill(buffer);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        } while (more);
+        return encoder.count();
+    }
+
+    public static ImportResult read(ReadableByteChannel channel, Import target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            target.feed(buffer);
+            buffer.clear();
+        }
+        return target.finish();
+    }
+
+    /**
+     * One import in progress: bytes go in through {@link #feed}, entities are stored as soon
+     * as they are complete.
+     */
+    public static final class Import {
+
+        private final BinaryDecoder<?> decoder;
+        private final List<ItemError> errors = new ArrayList<>();
+        private long imported;
+        private long unchanged;
+        private long rejected;
+
+        private <T> Import(int magic, EntityCodec<T> codec, Restore<T> restore) {
+            decoder = new BinaryDecoder<>(magic, codec, entity -> apply(restore, entity));
+        }
+
+        public void feed(ByteBuffer bytes) throws IOException {
+            decoder.feed(bytes);
+        }
+
+        /**
+         * @throws IOException when the input ended early or its checksum does not match
+         */
+        public ImportResult finish() throws IOException {
+            long read = decoder.finish();
+            log.info("Импорт завершён: {} записей, {} добавлено, {} без изменений, {} отклонено",
+                    read, imported, unchanged, rejected);
+            return new ImportResult(read, imported, unchanged, rejected, errors);
+        }
+
+        private <T> void apply(Restore<T> restore, T entity) {
+            long index = imported + unchanged + rejected;
+            try {
+                if (restore.restore(entity)) {
+                    imported++;
+                } else {
+                    unchanged++;
+                }
+            } catch (ValidationException | ConflictException e) {
+                rejected++;
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(new ItemError((int) index, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    private interface Restore<T> {
+        boolean restore(T entity) throws ValidationException;
+    }
+}
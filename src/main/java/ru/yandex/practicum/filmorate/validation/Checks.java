@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+final class Checks {
+
+    private static final int MAX_EMAIL_LOCAL_PART = 64;
+    private static final int MAX_EMAIL_DOMAIN = 255;
+    private static final int MAX_DOMAIN_LABEL = 63;
+    private static final int MIN_TOP_LEVEL_DOMAIN = 2;
+    private static final int MAX_TOP_LEVEL_DOMAIN = 6;
+
+    private static volatile Today today = new Today(LocalDate.now());
+
+    private Checks() {
+    }
+
+    /**
+     * Blank for both {@code String.trim()} (used by @NotBlank) and {@link Character#isWhitespace}.
+     */
+    static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > ' ' && !isSpace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean containsSpace(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (isSpace(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isInFuture(LocalDate date) {
+        return date.isAfter(today());
+    }
+
+    /**
+     * {@link LocalDate#now()} cached until midnight, so that date checks do not allocate.
+     */
+    private static LocalDate today() {
+        Today current = today;
+        if (System.currentTimeMillis() >= current.endMillis) {
+            current = new Today(LocalDate.now());
+            today = current;
+        }
+        return current.date;
+    }
+
+    private static final class Today {
+        final LocalDate date;
+        final long endMillis;
+
+        Today(LocalDate date) {
+            this.date = date;
+            this.endMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+
+    /**
+     * Accepts {@code local@label.label...tld}: the local part of [a-zA-Z0-9._%+-] without leading,
+     * trailing or doubled dots, domain labels of letters, digits and inner hyphens, and a top-level
+     * domain of 2 to 6 letters. Everything accepted here also passes @Email with the regexp on User.
+     */
+    static boolean isEmail(String value) {
+        int at = value.indexOf('@');
+        if (at <= 0 || at > MAX_EMAIL_LOCAL_PART || at != value.lastIndexOf('@')) {
+            return false;
+        }
+        char previous = '.';
+        for (int i = 0; i < at; i++) {
+            char c = value.charAt(i);
+            if (c == '.' ? previous == '.' : !isEmailLocalChar(c)) {
+                return false;
+            }
+            previous = c;
+        }
+        if (previous == '.') {
+            return false;
+        }
+        int length = value.length();
+        if (length - at - 1 > MAX_EMAIL_DOMAIN) {
+            return false;
+        }
+        int labels = 0;
+        int labelStart = at + 1;
+        int lastLabelStart = labelStart;
+        for (int i = labelStart; i <= length; i++) {
+            if (i == length || value.charAt(i) == '.') {
+                int labelLength = i - labelStart;
+                if (labelLength == 0 || labelLength > MAX_DOMAIN_LABEL
+                        || value.charAt(labelStart) == '-' || value.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labels++;
+                lastLabelStart = labelStart;
+                labelStart = i + 1;
+            } else if (!isDomainChar(value.charAt(i))) {
+                return false;
+            }
+        }
+        int topLevelLength = length - lastLabelStart;
+        if (labels < 2 || topLevelLength < MIN_TOP_LEVEL_DOMAIN || topLevelLength > MAX_TOP_LEVEL_DOMAIN) {
+            return false;
+        }
+        for (int i = lastLabelStart; i < length; i++) {
+            if (!isAsciiLetter(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(char c) {
+        return Character.isWhitespace(c) || Character.isSpaceChar(c);
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        return isAsciiLetter(c) || isDigit(c) || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return isAsciiLetter(c) || isDigit(c) || c == '-';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All rules for a film, checked in one pass without reflection: the constraint
+ * annotations on {@link Film} plus the release date and duration rules.
+ * Messages are constants, so a valid film costs no allocation.
+ */
+@Component
+public class FilmValidator {
+
+    public static final LocalDate FIRST_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+    public static final int MAX_DESCRIPTION_LENGTH = 200;
+
+    /**
+     * Returns the message of the first broken rule, or null when the film is valid.
+     */
+    public String validate(Film film) {
+        String error = checkName(film.getName());
+        if (error == null) {
+            error = checkDescription(film.getDescription());
+        }
+        if (error == null) {
+            error = checkReleaseDate(film.getReleaseDate());
+        }
+        if (error == null) {
+            error = checkDuration(film.getDuration());
+        }
+        return error;
+    }
+
+    public List<String> validateAll(Film film) {
+        List<String> errors = new ArrayList<>(1);
+        addIfPresent(errors, checkName(film.getName()));
+        addIfPresent(errors, checkDescription(film.getDescription()));
+        addIfPresent(errors, checkReleaseDate(film.getReleaseDate()));
+        addIfPresent(errors, checkDuration(film.getDuration()));
+        return errors;
+    }
+
+    private static String checkName(String name) {
+        if (Checks.isBlank(name)) {
+            return "Ошибка при создании фильма: название фильма не может быть пустым";
+        }
+        return null;
+    }
+
+    private static String checkDescription(String description) {
+        if (Checks.isBlank(description)) {
+            return "Ошибка при создании фильма: описание фильма не может быть пустым";
+        }
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            return "Ошибка при создании фильма: максимальный размер описания фильма - 200 символов";
+        }
+        return null;
+    }
+
+    private static String checkReleaseDate(LocalDate releaseDate) {
+        if (releaseDate == null) {
+            return "Ошибка при создании фильма: дата релиза фильма не может быть пустой";
+        }
+        if (releaseDate.isBefore(FIRST_RELEASE_DATE)) {
+            return "Дата релиза — не раньше 28 декабря 1895 года";
+        }
+        if (Checks.isInFuture(releaseDate)) {
+            return "Ошибка при создании фильма: дата релиза фильма не может быть в будущем";
+        }
+        return null;
+    }
+
+    private static String checkDuration(Integer duration) {
+        if (duration == null) {
+            return "Ошибка при создании фильма: продолжительность фильма не может быть пустой";
+        }
+        if (duration <= 0) {
+            return "Продолжительность фильма должна быть положительной";
+        }
+        return null;
+    }
+
+    private static void addIfPresent(List<String> errors, String error) {
+        if (error != null) {
+            errors.add(error);
+        }
+    }
+}
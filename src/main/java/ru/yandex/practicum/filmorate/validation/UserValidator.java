@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All rules for a user, checked in one pass without reflection or regular expressions:
+ * the constraint annotations on {@link User} plus the birthday rule.
+ * The email check is at least as strict as @Email with the regexp on {@link User}.
+ */
+@Component
+public class UserValidator {
+
+    /**
+     * Returns the message of the first broken rule, or null when the user is valid.
+     */
+    public String validate(User user) {
+        String error = checkEmail(user.getEmail());
+        if (error == null) {
+            error = checkLogin(user.getLogin());
+        }
+        if (error == null) {
+            error = checkBirthday(user.getBirthday());
+        }
+        return error;
+    }
+
+    public List<String> validateAll(User user) {
+        List<String> errors = new ArrayList<>(1);
+        addIfPresent(errors, checkEmail(user.getEmail()));
+        addIfPresent(errors, checkLogin(user.getLogin()));
+        addIfPresent(errors, checkBirthday(user.getBirthday()));
+        return errors;
+    }
+
+    private static String checkEmail(String email) {
+        if (Checks.isBlank(email)) {
+            return "Ошибка при создании пользователя: Email пользователя не может быть пустым";
+        }
+        if (!Checks.isEmail(email)) {
+            return "Ошибка при создании пользователя: Email пользователя не соответствует нужному формату";
+        }
+        return null;
+    }
+
+    private static String checkLogin(String login) {
+        if (Checks.isBlank(login)) {
+            return "Ошибка при создании пользователя: логин пользователя не может быть пустым";
+        }
+        if (Checks.containsSpace(login)) {
+            return "Ошибка при создании пользователя: логин пользователя не может содержать пробелы";
+        }
+        return null;
+    }
+
+    private static String checkBirthday(LocalDate birthday) {
+        if (birthday == null) {
+            return "Ошибка при создании пользователя: дата рождения пользователя не может быть пустой";
+        }
+        if (Checks.isInFuture(birthday)) {
+            return "Дата рождения не может быть в будущем";
+        }
+        return null;
+    }
+
+    private static void addIfPresent(List<String> errors, String error) {
+        if (error != null) {
+            errors.add(error);
+        }
+    }
+}
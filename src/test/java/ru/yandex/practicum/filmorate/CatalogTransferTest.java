@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.file.FilmCodec;
+import ru.yandex.practicum.filmorate.transfer.BinaryDecoder;
+import ru.yandex.practicum.filmorate.transfer.BinaryEncoder;
+import ru.yandex.practicum.filmorate.transfer.CatalogCli;
+import ru.yandex.practicum.filmorate.transfer.CatalogTransfer;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CatalogTransferTest {
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void clear() {
+        filmService.clear();
+        userService.clear();
+    }
+
+    @Test
+    void cli_shouldMoveCatalogBetweenNodesKeepingIdsAndVersions() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            filmService.create(new Film(null, "Фильм " + i, "Описание", LocalDate.of(2000 + i, 1, 1), 90 + i));
+            userService.create(new User(null, "user" + i + "@example.com", "user" + i, "Имя", LocalDate.of(1990, 1, 1)));
+        }
+        Film updated = new Film(2, "Новое название", "Описание", LocalDate.of(2002, 1, 1), 92);
+        filmService.update(updated);
+        List<Film> films = new ArrayList<>(filmStorage.findAll());
+        List<User> users = new ArrayList<>(userStorage.findAll());
+        Path filmsFile = dir.resolve("films.bin");
+        Path usersFile = dir.resolve("users.bin");
+        String[] files = {"--films=" + filmsFile, "--users=" + usersFile, "--url=http://localhost:" + port};
+
+        Assertions.assertEquals(0, CatalogCli.run(FilmorateApplication.class, command("export", files)));
+        clear();
+        Assertions.assertEquals(0, CatalogCli.run(FilmorateApplication.class, command("import", files)));
+
+        Assertions.assertEquals(films, new ArrayList<>(filmStorage.findAll()));
+        Assertions.assertEquals(users, new ArrayList<>(userStorage.findAll()));
+        Assertions.assertEquals(2L, filmStorage.findById(2).orElseThrow().getVersion());
+        ImportResult again = post("/films/import", Files.readAllBytes(filmsFile));
+        Assertions.assertEquals(new ImportResult(3, 0, 3, 0, List.of()), again);
+    }
+
+    @Test
+    void import_shouldRejectDamagedFile() throws Exception {
+        filmService.create(new Film(null, "Фильм", "Описание", LocalDate.of(2000, 1, 1), 90));
+        byte[] export = restTemplate.getForObject(url("/films/export"), byte[].class);
+        byte[] damaged = export.clone();
+        damaged[12] ^= 1;
+
+        for (byte[] body : List.of(damaged, Arrays.copyOf(export, export.length - 3))) {
+            HttpClientErrorException rejected = Assertions.assertThrows(HttpClientErrorException.class,
+                    () -> post("/films/import", body));
+            Assertions.assertEquals(400, rejected.getRawStatusCode());
+        }
+        HttpClientErrorException wrongType = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> post("/users/import", export));
+        Assertions.assertEquals(400, wrongType.getRawStatusCode());
+    }
+
+    @Test
+    void codec_shouldNotDependOnChunkBoundaries() throws Exception {
+        List<Film> films = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            Film film = new Film(i, "Фильм " + i, "Описание ".repeat(i), LocalDate.of(1950 + i, 1, 1), i);
+            film.setVersion((long) i);
+            films.add(film);
+        }
+        BinaryEncoder<Film> encoder = new BinaryEncoder<>(CatalogTransfer.FILMS, new FilmCodec(), films.iterator());
+        List<Film> decoded = new ArrayList<>();
+        BinaryDecoder<Film> decoder = new BinaryDecoder<>(CatalogTransfer.FILMS, new FilmCodec(), decoded::add);
+
+        ByteBuffer chunk = ByteBuffer.allocate(7);
+        boolean more;
+        do {
+            more = encoder.fill(chunk);
+            chunk.flip();
+            while (chunk.hasRemaining()) {
+                decoder.feed(ByteBuffer.wrap(new byte[]{chunk.get()}));
+            }
+            chunk.clear();
+        } while (more);
+
+        Assertions.assertEquals(50, decoder.finish());
+        Assertions.assertEquals(films, decoded);
+    }
+
+    private static String[] command(String name, String[] options) {
+        String[] args = new String[options.length + 1];
+        args[0] = name;
+        System.arraycopy(options, 0, args, 1, options.length);
+        return args;
+    }
+
+    private ImportResult post(String path, byte[] body) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        String json = restTemplate.postForObject(url(path), new HttpEntity<>(body, headers), String.class);
+        return objectMapper.readValue(json, ImportResult.class);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import ru.yandex.practicum.filmorate.event.ChangeEventLog;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+class ChangeEventLogTest {
+
+    @Test
+    void readAfter_shouldResumeFromSequenceNumber() {
+        ChangeEventLog log = new ChangeEventLog(8);
+        for (int i = 1; i <= 5; i++) {
+            log.publish(ChangeEvent.FILM_CREATED, i);
+        }
+        Assertions.assertEquals(List.of(3L, 4L), sequences(log.readAfter(2, 2)));
+        Assertions.assertEquals(List.of(), sequences(log.readAfter(5, 10)));
+    }
+
+    @Test
+    void readAfter_shouldSkipToOldestBufferedEvent_whenReaderFellBehind() {
+        ChangeEventLog log = new ChangeEventLog(4);
+        for (int i = 1; i <= 10; i++) {
+            log.publish(ChangeEvent.USER_UPDATED, i);
+        }
+        Assertions.assertEquals(10, log.lastSequence());
+        Assertions.assertEquals(List.of(7L, 8L, 9L, 10L), sequences(log.readAfter(0, 100)));
+        Assertions.assertEquals(9, log.readAfter(8, 1).get(0).getData());
+    }
+
+    @Test
+    void publish_shouldNumberConcurrentEventsWithoutGaps() throws Exception {
+        ChangeEventLog log = new ChangeEventLog(1 << 16);
+        int writers = 4;
+        int perWriter = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Long> seen = new ArrayList<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        log.publish(ChangeEvent.FILM_UPDATED, i);
+                    }
+                }));
+            }
+            while (seen.size() < writers * perWriter) {
+                seen.addAll(sequences(log.readAfter(seen.size(), 1000)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(LongStream.rangeClosed(1, writers * perWriter).boxed().collect(Collectors.toList()),
+                seen);
+    }
+
+    @Test
+    void published_shouldWakeSubscriberForEveryEvent_whenWritersEmitConcurrently() throws Exception {
+        ChangeEventLog log = new ChangeEventLog(1024);
+        int writers = 4;
+        List<Long> received = new ArrayList<>();
+        // Reads only on wake-up signals, without the heartbeat polling of EventStream, and
+        // lingers after reading, so the other writers emit while a signal is being delivered.
+        Disposable subscriber = log.published().subscribe(signal -> {
+            synchronized (received) {
+                received.addAll(sequences(log.readAfter(received.size(), Integer.MAX_VALUE)));
+            }
+            LockSupport.parkNanos(1_000_000);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            for (int round = 1; round <= 50; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        log.publish(ChangeEvent.FILM_UPDATED, 1);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                synchronized (received) {
+                    Assertions.assertEquals(round * writers, received.size(), "Потерян сигнал в раунде " + round);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            subscriber.dispose();
+        }
+    }
+
+    private static List<Long> sequences(List<ChangeEvent> events) {
+        return events.stream().map(ChangeEvent::getSequence).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FileBackedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FileBackedUserStorage;
+import ru.yandex.practicum.filmorate.storage.file.EntityCodec;
+import ru.yandex.practicum.filmorate.storage.file.FileJournal;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class FileBackedStorageRecoveryTest {
+
+    private static final int WRITTEN_BEFORE_KILL = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recover_shouldRestoreSnapshotAndLogTail() throws Exception {
+        FileBackedUserStorage storage = new FileBackedUserStorage(dir, false);
+        storage.recover();
+        for (int i = 1; i <= 100; i++) {
+            storage.create(new User(null, "user" + i + "@example.com", "login" + i, "Имя", LocalDate.of(1990, 1, 1)));
+        }
+        storage.snapshot();
+        for (int i = 101; i <= 150; i++) {
+            storage.create(new User(null, "user" + i + "@example.com", "login" + i, "Имя", LocalDate.of(1990, 1, 1)));
+        }
+        storage.update(new User(1, "new@example.com", "newLogin", null, LocalDate.of(1991, 2, 3)));
+
+        FileBackedUserStorage recovered = new FileBackedUserStorage(dir, false);
+        recovered.recover();
+
+        Assertions.assertEquals(150, recovered.findAll().size());
+        User first = recovered.findAll().iterator().next();
+        User expected = new User(1, "new@example.com", "newLogin", null, LocalDate.of(1991, 2, 3));
+        expected.setVersion(2L);
+        Assertions.assertEquals(expected, first);
+        Assertions.assertEquals(151, recovered.create(new User(null, "x@example.com", "x", "x",
+                LocalDate.of(2000, 1, 1))).getId());
+    }
+
+    @Test
+    void recover_shouldReturnEmptyStorage_afterClear() throws Exception {
+        FileBackedFilmStorage storage = new FileBackedFilmStorage(dir, false);
+        storage.recover();
+        storage.create(film(null));
+        storage.snapshot();
+        storage.create(film(null));
+        storage.clear();
+        storage.create(film(null));
+
+        FileBackedFilmStorage recovered = new FileBackedFilmStorage(dir, false);
+        recovered.recover();
+
+        Assertions.assertEquals(1, recovered.findAll().size());
+        Assertions.assertEquals(1, recovered.findAll().iterator().next().getId());
+    }
+
+    @Test
+    void recover_shouldRestoreWholeBatch() throws Exception {
+        FileBackedFilmStorage storage = new FileBackedFilmStorage(dir, false);
+        storage.recover();
+        List<Film> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(film(null));
+        }
+        storage.createAll(batch);
+
+        FileBackedFilmStorage recovered = new FileBackedFilmStorage(dir, false);
+        recovered.recover();
+
+        Assertions.assertEquals(1000, recovered.findAll().size());
+        Assertions.assertEquals(1001, recovered.create(film(null)).getId());
+    }
+
+    @Test
+    void write_shouldNotApplyEntity_whenLogRecordCannotBeWritten() throws Exception {
+        EntityCodec<Film> failing = new EntityCodec<>() {
+            @Override
+            public void write(DataOutput out, Film entity) throws IOException {
+                throw new IOException("Диск заполнен");
+            }
+
+            @Override
+            public Film read(DataInput in) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        List<Film> applied = new ArrayList<>();
+        try (FileJournal<Film> journal = new FileJournal<>(dir, "films", failing, false)) {
+            journal.recover(applied::add);
+
+            Assertions.assertThrows(UncheckedIOException.class, () -> journal.write(1, () -> film(1), applied::add));
+        }
+
+        Assertions.assertEquals(List.of(), applied);
+    }
+
+    @Test
+    void recover_shouldKeepEveryAcknowledgedWrite_whenProcessIsKilledMidWrite() throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                CrashingWriter.class.getName(), dir.toString())
+                .redirectErrorStream(true)
+                .start();
+        Map<Integer, Integer> acknowledged = new HashMap<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(writer.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null && !line.equals("ready")) {
+                acknowledge(acknowledged, line);
+            }
+            Assertions.assertEquals("ready", line, "Процесс записи завершился раньше времени");
+            Thread killer = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // Process.destroyForcibly would also close the pipe being read; the handle only kills.
+                writer.toHandle().destroyForcibly();
+            });
+            killer.start();
+            while ((line = out.readLine()) != null) {
+                acknowledge(acknowledged, line);
+            }
+            killer.join();
+            Assertions.assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+        }
+
+        FileBackedFilmStorage recovered = new FileBackedFilmStorage(dir, false);
+        recovered.recover();
+
+        int expectedId = 1;
+        for (Film film : recovered.findAll()) {
+            Assertions.assertEquals(expectedId++, film.getId());
+            Assertions.assertEquals("Фильм " + film.getId(), film.getName());
+            Assertions.assertTrue(film.getDuration() == 100 || film.getDuration() == 101);
+        }
+        Assertions.assertTrue(acknowledged.size() > WRITTEN_BEFORE_KILL);
+        for (Map.Entry<Integer, Integer> ack : acknowledged.entrySet()) {
+            Film film = recovered.findById(ack.getKey()).orElse(null);
+            Assertions.assertNotNull(film, "Потерян подтверждённый фильм " + ack.getKey());
+            // An update may be logged and then killed before it was acknowledged, so a newer state is fine.
+            Assertions.assertTrue(film.getDuration() >= ack.getValue(), "Потеряно обновление фильма " + ack.getKey());
+        }
+    }
+
+    /**
+     * Records a write the writer reported as done: "{@code <id> <duration>;}". A line cut
+     * short by the kill has no terminator and was not acknowledged.
+     */
+    private static void acknowledge(Map<Integer, Integer> acknowledged, String line) {
+        if (line.endsWith(";")) {
+            String[] ack = line.substring(0, line.length() - 1).split(" ");
+            acknowledged.put(Integer.parseInt(ack[0]), Integer.parseInt(ack[1]));
+        }
+    }
+
+    private static Film film(Integer id) {
+        return new Film(id, "Фильм " + id, "Описание", LocalDate.of(2000, 1, 1), 100);
+    }
+
+    static class CrashingWriter {
+
+        public static void main(String[] args) throws Exception {
+            FileBackedFilmStorage storage = new FileBackedFilmStorage(Paths.get(args[0]), false);
+            storage.recover();
+            for (int i = 1; ; i++) {
+                Film film = storage.create(film(i));
+                System.out.println(i + " 100;");
+                film.setDuration(101);
+                storage.update(film);
+                System.out.println(i + " 101;");
+                if (i % 50_000 == 0) {
+                    storage.snapshot();
+                }
+                if (i == WRITTEN_BEFORE_KILL) {
+                    System.out.println("ready");
+                    System.out.flush();
+                }
+            }
+        }
+    }
+}
@@ -6,22 +6,36 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.event.ChangeEventLog;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+@AutoConfigureMetrics
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class FilmControllerTest {
 
@@ -38,10 +52,15 @@ class FilmControllerTest {
     private int port;
     @Autowired
     private FilmController filmController;
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private ChangeEventLog changeEventLog;
 
     @BeforeEach
     void clear() {
         filmController.deleteHelper();
+        userController.deleteHelper();
     }
 
     @BeforeEach
@@ -85,6 +104,7 @@ class FilmControllerTest {
         restTemplate.postForEntity(uri, request, String.class);
         Film updatedFilm = new Film(1, "ТестФильмUpd", "ТестДескUpd", LocalDate.of(2010, 12, 12), 100);
         restTemplate.put(String.valueOf(uri), updatedFilm, Film.class);
+        updatedFilm.setVersion(2L);
         ResponseEntity<String> result = restTemplate.getForEntity(uri, String.class);
         Assertions.assertEquals(List.of(gson.toJson(updatedFilm)).toString(), result.getBody());
     }
@@ -117,6 +137,7 @@ class FilmControllerTest {
         Film film = new Film(1, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
         HttpEntity<Film> request = new HttpEntity<>(film, headers);
         ResponseEntity<String> result = restTemplate.postForEntity(uri, request, String.class);
+        film.setVersion(1L);
         Assertions.assertEquals(gson.toJson(film), result.getBody());
     }
 
@@ -125,9 +146,289 @@ class FilmControllerTest {
         Film film = new Film(1, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
         HttpEntity<Film> request = new HttpEntity<>(film, headers);
         restTemplate.postForEntity(uri, request, String.class);
+        film.setVersion(1L);
         ResponseEntity<String> result = restTemplate.getForEntity(uri, String.class);
         Assertions.assertEquals(List.of(gson.toJson(film)).toString(), result.getBody());
     }
 
-}
+    @Test
+    void getRequest_shouldReturnPageAfterCursor_whenLimitAndAfterPassed() {
+        List<String> films = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Film film = new Film(i, "ТестФильм" + i, "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+            restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+            film.setVersion(1L);
+            films.add(gson.toJson(film));
+        }
+        Film second = new Film(2, "ТестФильм2", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        second.setVersion(1L);
+        ResponseEntity<String> result = restTemplate.getForEntity(uri + "?limit=1&after=1", String.class);
+        Assertions.assertEquals(List.of(gson.toJson(second)).toString(), result.getBody());
+    }
+
+    @Test
+    void getRequest_shouldReturnNdjson_whenNdjsonAccepted() {
+        Film film = new Film(1, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+        film.setVersion(1L);
+        HttpHeaders ndjsonHeaders = new HttpHeaders();
+        ndjsonHeaders.set("Accept", "application/x-ndjson");
+        ResponseEntity<String> result = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(ndjsonHeaders),
+                String.class);
+        Assertions.assertEquals(gson.toJson(film) + "\n", result.getBody());
+    }
+
+    @Test
+    void getPopular_shouldReturnFilmsOrderedByLikes() {
+        List<String> films = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Film film = new Film(i, "ТестФильм" + i, "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+            restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+            film.setVersion(1L);
+            films.add(gson.toJson(film));
+            User user = new User(null, "user" + i + "@example.com", "login" + i, "Имя", LocalDate.of(1990, 1, 1));
+            restTemplate.postForEntity(uri.resolve("/users"), new HttpEntity<>(user, headers), String.class);
+        }
+        restTemplate.put(uri + "3/like/1", null);
+        restTemplate.put(uri + "3/like/2", null);
+        restTemplate.put(uri + "2/like/1", null);
+        restTemplate.put(uri + "2/like/3", null);
+        restTemplate.delete(uri + "2/like/3");
+
+        ResponseEntity<String> result = restTemplate.getForEntity(uri + "popular?count=3", String.class);
+
+        Assertions.assertEquals("[" + String.join(",", films.get(2), films.get(1), films.get(0)) + "]",
+                result.getBody());
+    }
+
+    @Test
+    void putLike_shouldReturnCode404_whenUserIsUnknown() {
+        Film film = new Film(1, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+        HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.put(uri + "1/like/42", null));
+        Assertions.assertEquals(404, e.getRawStatusCode());
+    }
+
+    @Test
+    void postBatch_shouldCreateAllFilms_whenEveryItemIsValid() {
+        Film first = new Film(null, "ТестФильм1", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        Film second = new Film(null, "ТестФильм2", "ТестДеск", LocalDate.of(2001, 12, 12), 90);
+        ResponseEntity<String> result = restTemplate.postForEntity(uri + "batch",
+                new HttpEntity<>(List.of(first, second), headers), String.class);
+        first.setId(1);
+        second.setId(2);
+        first.setVersion(1L);
+        second.setVersion(1L);
+        Assertions.assertEquals("[" + gson.toJson(first) + "," + gson.toJson(second) + "]", result.getBody());
+    }
+
+    @Test
+    void postBatch_shouldReturnErrorsPerItemAndCreateNothing_whenSomeItemsAreInvalid() {
+        Film valid = new Film(null, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        Film tooOld = new Film(null, "ТестФильм", "ТестДеск", LocalDate.of(1777, 12, 12), 100);
+        HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForEntity(uri + "batch", new HttpEntity<>(List.of(valid, tooOld), headers),
+                        String.class));
+        Assertions.assertEquals(400, e.getRawStatusCode());
+        Assertions.assertEquals("[{\"index\":1,\"message\":\"Дата релиза — не раньше 28 декабря 1895 года\"}]",
+                e.getResponseBodyAsString(StandardCharsets.UTF_8));
+        Assertions.assertEquals("[]", restTemplate.getForEntity(uri, String.class).getBody());
+    }
+
+    @Test
+    void postBatch_shouldReturnErrorsPerItem_whenIdIsTakenOrRepeated() {
+        Film stored = new Film(null, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        restTemplate.postForEntity(uri, new HttpEntity<>(stored, headers), String.class);
+        Film taken = new Film(1, "Замена", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        Film first = new Film(5, "ТестФильм5", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        Film repeated = new Film(5, "ТестФильм5bis", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+
+        HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForEntity(uri + "batch", new HttpEntity<>(List.of(taken, first, repeated),
+                        headers), String.class));
+
+        stored.setId(1);
+        stored.setVersion(1L);
+        Assertions.assertEquals(400, e.getRawStatusCode());
+        Assertions.assertEquals("[{\"index\":0,\"message\":\"Фильм с ID 1 уже существует\"},"
+                        + "{\"index\":2,\"message\":\"Фильм с ID 5 уже существует\"}]",
+                e.getResponseBodyAsString(StandardCharsets.UTF_8));
+        Assertions.assertEquals("[" + gson.toJson(stored) + "]", restTemplate.getForEntity(uri, String.class).getBody());
+    }
+
+    @Test
+    void search_shouldRankNameMatchesFirstAndMatchPrefixOfLastWord() {
+        Film inName = new Film(1, "Тёмный рыцарь", "Фильм о Бэтмене", LocalDate.of(2008, 7, 14), 152);
+        Film inDescription = new Film(2, "Начало", "Рыцарь снов и тёмные сны", LocalDate.of(2010, 7, 8), 148);
+        Film other = new Film(3, "Интерстеллар", "Космос", LocalDate.of(2014, 10, 26), 169);
+        for (Film film : List.of(inName, inDescription, other)) {
+            restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+            film.setVersion(1L);
+        }
+
+        ResponseEntity<String> result = restTemplate.getForEntity(uri + "search?q=рыцар", String.class);
+        ResponseEntity<String> both = restTemplate.getForEntity(uri + "search?q=сны тем", String.class);
+
+        Assertions.assertEquals("[" + gson.toJson(inName) + "," + gson.toJson(inDescription) + "]", result.getBody());
+        Assertions.assertEquals("[" + gson.toJson(inDescription) + "]", both.getBody());
+        Assertions.assertEquals("[]", restTemplate.getForEntity(uri + "search?q=ры", String.class).getBody());
+        for (String limit : List.of("101", "2147483647")) {
+            HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                    () -> restTemplate.getForEntity(uri + "search?q=рыцар&limit=" + limit, String.class));
+            Assertions.assertEquals(400, e.getRawStatusCode());
+        }
+    }
+
+    @Test
+    void getRequest_shouldReturnFilmsReleasedWithinRangeInReleaseOrder() {
+        Film newest = new Film(1, "Новый", "ТестДеск", LocalDate.of(2020, 1, 1), 100);
+        Film oldest = new Film(2, "Старый", "ТестДеск", LocalDate.of(1950, 1, 1), 100);
+        Film middle = new Film(3, "Средний", "ТестДеск", LocalDate.of(1990, 6, 1), 100);
+        for (Film film : List.of(newest, oldest, middle)) {
+            restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+            film.setVersion(1L);
+        }
+        newest.setReleaseDate(LocalDate.of(1980, 1, 1));
+        restTemplate.put(uri, newest);
+        newest.setVersion(2L);
+
+        ResponseEntity<String> range = restTemplate.getForEntity(uri + "?from=1950-01-01&to=1990-06-01", String.class);
+        ResponseEntity<String> open = restTemplate.getForEntity(uri + "?from=1970-01-01&limit=1", String.class);
+
+        Assertions.assertEquals("[" + String.join(",", gson.toJson(oldest), gson.toJson(newest), gson.toJson(middle))
+                + "]", range.getBody());
+        Assertions.assertEquals("[" + gson.toJson(newest) + "]", open.getBody());
+    }
+
+    @Test
+    void prometheusEndpoint_shouldExposeTimersCountersAndGauges() {
+        Film film = new Film(1, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+        Film tooOld = new Film(null, "ТестФильм", "ТестДеск", LocalDate.of(1777, 12, 12), 100);
+        Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForEntity(uri, new HttpEntity<>(tooOld, headers), String.class));
+
+        String metrics = restTemplate.getForObject(uri.resolve("/actuator/prometheus"), String.class);
+
+        assertThat(metrics).contains("filmorate_operation_seconds_count{operation=\"film.create\",}");
+        assertThat(metrics).containsPattern("filmorate_validation_failures_total\\{entity=\"film\",} [1-9]");
+        assertThat(metrics).contains("filmorate_entities{entity=\"film\",} 1.0");
+        assertThat(metrics).containsPattern("filmorate_entity_heap_estimate_bytes\\{entity=\"film\",} [1-9]");
+    }
+
+    @Test
+    void getRequest_shouldReturnCode304_untilFilmsChange() {
+        Film film = new Film(1, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+        ResponseEntity<String> first = restTemplate.getForEntity(uri, String.class);
+        String etag = first.getHeaders().getETag();
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(etag);
+
+        ResponseEntity<String> unchanged = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(conditional),
+                String.class);
+        film.setName("НовоеИмя");
+        restTemplate.put(uri, film);
+        film.setVersion(2L);
+        ResponseEntity<String> changed = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(conditional),
+                String.class);
+
+        Assertions.assertNotNull(etag);
+        Assertions.assertEquals(304, unchanged.getStatusCodeValue());
+        Assertions.assertNull(unchanged.getBody());
+        Assertions.assertEquals(200, changed.getStatusCodeValue());
+        Assertions.assertNotEquals(etag, changed.getHeaders().getETag());
+        Assertions.assertEquals("[" + gson.toJson(film) + "]", changed.getBody());
+    }
+
+    @Test
+    void getRequest_shouldNotShareEtag_betweenPagesAndFilters() {
+        for (int i = 1; i <= 2; i++) {
+            restTemplate.postForEntity(uri, new HttpEntity<>(
+                    new Film(null, "Фильм " + i, "ТестДеск", LocalDate.of(2000 + i, 1, 1), 100), headers), String.class);
+        }
+        String firstPage = restTemplate.getForEntity(uri + "?limit=1", String.class).getHeaders().getETag();
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(firstPage);
 
+        for (String query : List.of("", "?limit=1&after=1", "?from=2002-01-01")) {
+            ResponseEntity<String> other = restTemplate.exchange(uri + query, HttpMethod.GET,
+                    new HttpEntity<>(conditional), String.class);
+            Assertions.assertEquals(200, other.getStatusCodeValue(), query);
+            Assertions.assertNotEquals(firstPage, other.getHeaders().getETag(), query);
+        }
+        Assertions.assertEquals(304, restTemplate.exchange(uri + "?limit=1", HttpMethod.GET,
+                new HttpEntity<>(conditional), String.class).getStatusCodeValue());
+    }
+
+    @Test
+    void putRequest_shouldReturnCode409_whenVersionIsStale() {
+        Film film = new Film(null, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+        Film edit = new Film(1, "Правка", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        HttpHeaders ifMatch = new HttpHeaders();
+        ifMatch.setIfMatch("\"1\"");
+
+        ResponseEntity<String> applied = restTemplate.exchange(uri, HttpMethod.PUT, new HttpEntity<>(edit, ifMatch),
+                String.class);
+        HttpClientErrorException staleHeader = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.exchange(uri, HttpMethod.PUT, new HttpEntity<>(edit, ifMatch), String.class));
+        HttpHeaders weak = new HttpHeaders();
+        weak.setIfMatch("W/\"2\"");
+        HttpClientErrorException weakHeader = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.exchange(uri, HttpMethod.PUT, new HttpEntity<>(edit, weak), String.class));
+        edit.setVersion(1L);
+        HttpClientErrorException staleBody = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.put(uri, edit));
+
+        edit.setVersion(2L);
+        Assertions.assertEquals(gson.toJson(edit), applied.getBody());
+        Assertions.assertEquals("\"2\"", applied.getHeaders().getETag());
+        Assertions.assertEquals(409, staleHeader.getRawStatusCode());
+        Assertions.assertEquals(412, weakHeader.getRawStatusCode());
+        Assertions.assertEquals(409, staleBody.getRawStatusCode());
+        Assertions.assertEquals("[" + gson.toJson(edit) + "]", restTemplate.getForEntity(uri, String.class).getBody());
+    }
+
+    @Test
+    void postRequest_shouldReturnCode409_whenIdIsTaken() {
+        Film film = new Film(null, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        restTemplate.postForEntity(uri, new HttpEntity<>(film, headers), String.class);
+        Film edit = new Film(1, "Правка", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        edit.setVersion(1L);
+        restTemplate.put(uri, edit);
+        Film replacement = new Film(1, "Замена", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+
+        HttpClientErrorException taken = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForEntity(uri, new HttpEntity<>(replacement, headers), String.class));
+
+        edit.setVersion(2L);
+        Assertions.assertEquals(409, taken.getRawStatusCode());
+        Assertions.assertEquals("[" + gson.toJson(edit) + "]", restTemplate.getForEntity(uri, String.class).getBody());
+    }
+
+    @Test
+    void events_shouldResumeAfterLastEventId() {
+        Film first = new Film(null, "Первый", "Описание", LocalDate.of(2000, 1, 1), 100);
+        Film second = new Film(null, "Второй", "Описание", LocalDate.of(2000, 1, 1), 100);
+        restTemplate.postForEntity(uri, new HttpEntity<>(first, headers), String.class);
+        long afterFirst = changeEventLog.lastSequence();
+        restTemplate.postForEntity(uri, new HttpEntity<>(second, headers), String.class);
+        second.setId(2);
+        second.setVersion(1L);
+
+        ServerSentEvent<String> event = WebClient.create("http://localhost:" + port).get().uri("/events")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", String.valueOf(afterFirst))
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                })
+                .blockFirst(Duration.ofSeconds(10));
+
+        Assertions.assertEquals("film.created", event.event());
+        Assertions.assertEquals(String.valueOf(afterFirst + 1), event.id());
+        Assertions.assertEquals(gson.toJson(second), event.data());
+    }
+
+}
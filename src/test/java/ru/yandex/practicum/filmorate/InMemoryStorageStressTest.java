@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class InMemoryStorageStressTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 5_000;
+
+    @Test
+    void concurrentCreates_shouldNeitherLoseNorDuplicateFilms() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        runConcurrently(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                Film film = storage.create(new Film(null, "Фильм " + thread + "-" + i, "Описание",
+                        LocalDate.of(2000, 1, 1), 100));
+                film.setDuration(101);
+                storage.update(film);
+            }
+        });
+
+        Set<Integer> ids = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (Film film : storage.findAll()) {
+            Assertions.assertTrue(ids.add(film.getId()), "Дублирующийся ID " + film.getId());
+            Assertions.assertTrue(names.add(film.getName()), "Фильм добавлен дважды: " + film.getName());
+            Assertions.assertEquals(101, film.getDuration());
+        }
+        Assertions.assertEquals(THREADS * PER_THREAD, ids.size());
+        Assertions.assertEquals(THREADS * PER_THREAD, (int) ids.stream().max(Integer::compare).orElseThrow());
+    }
+
+    @Test
+    void concurrentCreates_shouldNeitherLoseNorDuplicateUsers() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        runConcurrently(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                storage.create(new User(null, "user" + thread + "-" + i + "@example.com", "login" + thread + "-" + i,
+                        "Имя", LocalDate.of(1990, 1, 1)));
+            }
+        });
+
+        Set<Integer> ids = new HashSet<>();
+        Set<String> logins = new HashSet<>();
+        for (User user : storage.findAll()) {
+            Assertions.assertTrue(ids.add(user.getId()), "Дублирующийся ID " + user.getId());
+            Assertions.assertTrue(logins.add(user.getLogin()), "Пользователь добавлен дважды: " + user.getLogin());
+        }
+        Assertions.assertEquals(THREADS * PER_THREAD, ids.size());
+    }
+
+    @Test
+    void concurrentConditionalUpdates_shouldNotLoseAnyFilmUpdate() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        storage.create(new Film(null, "Фильм", "Описание", LocalDate.of(2000, 1, 1), 1));
+        AtomicInteger conflicts = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                while (true) {
+                    Film current = storage.findById(1).orElseThrow();
+                    Film next = new Film(1, current.getName(), current.getDescription(), current.getReleaseDate(),
+                            current.getDuration() + 1);
+                    next.setVersion(current.getVersion());
+                    try {
+                        storage.update(next);
+                        break;
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        Film film = storage.findById(1).orElseThrow();
+        Assertions.assertEquals(1 + THREADS * PER_THREAD, film.getDuration());
+        Assertions.assertEquals(1 + THREADS * PER_THREAD, film.getVersion());
+        Assertions.assertTrue(conflicts.get() > 0 || Runtime.getRuntime().availableProcessors() == 1,
+                "Нет ни одного конфликта: проверка ничего не проверила");
+    }
+
+    @Test
+    void concurrentConditionalUpdates_shouldNotLoseAnyUserUpdate() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        storage.create(new User(null, "user@example.com", "login", "0", LocalDate.of(1990, 1, 1)));
+        runConcurrently(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                while (true) {
+                    User current = storage.findById(1).orElseThrow();
+                    User next = new User(1, current.getEmail(), current.getLogin(),
+                            String.valueOf(Integer.parseInt(current.getName()) + 1), current.getBirthday());
+                    next.setVersion(current.getVersion());
+                    try {
+                        storage.update(next);
+                        break;
+                    } catch (ConflictException e) {
+                        // someone else won, re-read and retry
+                    }
+                }
+            }
+        });
+
+        User user = storage.findById(1).orElseThrow();
+        Assertions.assertEquals(String.valueOf(THREADS * PER_THREAD), user.getName());
+        Assertions.assertEquals(1 + THREADS * PER_THREAD, user.getVersion());
+    }
+
+    private void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private interface Worker {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.PackedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.PackedUserStorage;
+import ru.yandex.practicum.filmorate.storage.packed.RowCodec;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class PackedStorageTest {
+
+    @Test
+    void packedFilmStorage_shouldRoundTripFilmsInIdOrder() {
+        PackedFilmStorage storage = new PackedFilmStorage();
+        Film sparse = new Film(1_000_000, "Далёкий", "Описание ".repeat(20), LocalDate.of(1895, 12, 28), 1);
+        Film negative = new Film(-5, null, "", null, null);
+        storage.create(sparse);
+        storage.create(negative);
+        Film first = storage.create(new Film(null, "Тёмный рыцарь 🦇", "Фильм о Бэтмене", LocalDate.of(2008, 7, 14), 152));
+
+        Assertions.assertEquals(1_000_001, first.getId());
+        Assertions.assertEquals(List.of(-5, 1_000_000, 1_000_001), ids(storage.findAll()));
+        Assertions.assertEquals(List.of(1_000_001), ids(storage.findAfter(1_000_000)));
+        Assertions.assertEquals(1, storage.findAfter(1_000_000).size());
+        Assertions.assertEquals(first, storage.findById(1_000_001).orElseThrow());
+        Assertions.assertEquals(negative, storage.findById(-5).orElseThrow());
+        Assertions.assertEquals(sparse, storage.findById(1_000_000).orElseThrow());
+        Assertions.assertTrue(storage.findById(7).isEmpty());
+        Assertions.assertEquals(3, storage.count());
+    }
+
+    @Test
+    void packedFilmStorage_shouldNotShareStateWithReturnedFilms() {
+        PackedFilmStorage storage = new PackedFilmStorage();
+        storage.create(new Film(null, "Фильм", "Описание", LocalDate.of(2000, 1, 1), 100));
+        storage.findById(1).orElseThrow().setName("Изменён снаружи");
+        Assertions.assertEquals("Фильм", storage.findById(1).orElseThrow().getName());
+    }
+
+    @Test
+    void packedUserStorage_shouldApplyUpdatesAsCompareAndSet() {
+        PackedUserStorage storage = new PackedUserStorage();
+        storage.create(new User(null, "user@example.com", "login", null, LocalDate.of(1990, 1, 1)));
+        User edit = new User(1, "user@example.com", "login", "Имя", LocalDate.of(1990, 1, 1));
+        edit.setVersion(1L);
+
+        Assertions.assertEquals(2L, storage.update(edit).orElseThrow().getVersion());
+        edit.setVersion(1L);
+        Assertions.assertThrows(ConflictException.class, () -> storage.update(edit));
+        Assertions.assertTrue(storage.update(new User(2, "x@example.com", "x", "x", LocalDate.of(1990, 1, 1)))
+                .isEmpty());
+
+        User stored = storage.findById(1).orElseThrow();
+        Assertions.assertEquals("Имя", stored.getName());
+        Assertions.assertEquals(2L, stored.getVersion());
+        storage.clear();
+        Assertions.assertEquals(0, storage.count());
+        Assertions.assertTrue(storage.findAll().isEmpty());
+    }
+
+    @Test
+    void packedUserStorage_shouldRejectBirthdaysOutsideEpochDayRange() {
+        PackedUserStorage storage = new PackedUserStorage();
+        User earliest = new User(null, "user@example.com", "login", null, RowCodec.FIRST_DATE);
+        Assertions.assertNull(storage.checkStorable(earliest));
+        storage.create(earliest);
+        Assertions.assertEquals(RowCodec.FIRST_DATE, storage.findById(1).orElseThrow().getBirthday());
+
+        for (LocalDate birthday : List.of(LocalDate.ofEpochDay(Integer.MIN_VALUE), LocalDate.parse("-10000000-01-01"))) {
+            User old = new User(null, "old@example.com", "old", null, birthday);
+            Assertions.assertEquals("Ошибка при создании пользователя: дата рождения пользователя должна быть не раньше "
+                    + RowCodec.FIRST_DATE, storage.checkStorable(old));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> storage.create(old));
+        }
+        Assertions.assertNull(new InMemoryUserStorage().checkStorable(
+                new User(null, "old@example.com", "old", null, LocalDate.parse("-10000000-01-01"))));
+    }
+
+    private static List<Integer> ids(Collection<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
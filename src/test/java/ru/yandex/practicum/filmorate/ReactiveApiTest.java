@@ -0,0 +1,139 @@
+package ru.yandex.practicum.filmorate;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.yandex.practicum.filmorate.event.ChangeEventLog;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+class ReactiveApiTest {
+
+    Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .create();
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ChangeEventLog changeEventLog;
+
+    @BeforeEach
+    void clear() {
+        filmService.clear();
+        userService.clear();
+    }
+
+    @Test
+    void films_shouldFollowServletContract() {
+        Film film = new Film(1, "ТестФильм", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+        film.setVersion(1L);
+        Film tooOld = new Film(null, "ТестФильм", "ТестДеск", LocalDate.of(1777, 12, 12), 100);
+        Film blank = new Film(null, "", "ТестДеск", LocalDate.of(2000, 12, 12), 100);
+
+        client.post().uri("/films/").bodyValue(film).exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo(gson.toJson(film));
+        client.post().uri("/films").bodyValue(tooOld).exchange().expectStatus().isBadRequest();
+        client.post().uri("/films").bodyValue(blank).exchange().expectStatus().isBadRequest();
+        client.put().uri("/films").bodyValue(new Film(42, "Нет", "Нет", LocalDate.of(2000, 1, 1), 1)).exchange()
+                .expectStatus().is5xxServerError();
+        String etag = client.get().uri("/films/").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("[" + gson.toJson(film) + "]")
+                .returnResult().getResponseHeaders().getETag();
+        client.get().uri("/films").header("If-None-Match", etag).exchange().expectStatus().isNotModified();
+        client.get().uri("/films?from=2001-01-01").exchange().expectBody(String.class).isEqualTo("[]");
+        client.get().uri("/films").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectHeader().contentType("application/x-ndjson;charset=UTF-8")
+                .expectBody(String.class).isEqualTo(gson.toJson(film) + "\n");
+    }
+
+    @Test
+    void users_shouldFollowServletContract() {
+        User first = new User(null, "first@example.com", "first", "Первый", LocalDate.of(1990, 1, 1));
+        User second = new User(null, "second@example.com", "second", null, LocalDate.of(1991, 1, 1));
+        client.post().uri("/users/batch").contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(gson.toJson(first) + "\n" + gson.toJson(second) + "\n").exchange()
+                .expectStatus().isOk();
+        client.post().uri("/users").bodyValue(new User(null, "FIRST@example.com", "other", "Другой",
+                LocalDate.of(1990, 1, 1))).exchange().expectStatus().isEqualTo(409);
+        client.put().uri("/users/1/friends/2").exchange().expectStatus().isOk();
+        client.put().uri("/users/1/friends/1").exchange().expectStatus().isBadRequest();
+        client.put().uri("/users/1/friends/7").exchange().expectStatus().isNotFound();
+        client.put().uri("/users/x/friends/2").exchange().expectStatus().isBadRequest();
+        client.put().uri("/users").header("If-Match", "\"1\"")
+                .bodyValue(new User(1, "first@example.com", "first", "Первая", LocalDate.of(1990, 1, 1))).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"2\"");
+        client.put().uri("/users").header("If-Match", "W/\"2\"")
+                .bodyValue(new User(1, "first@example.com", "first", "Первая", LocalDate.of(1990, 1, 1))).exchange()
+                .expectStatus().isEqualTo(412);
+
+        second.setId(2);
+        second.setName("second");
+        second.setVersion(1L);
+        client.get().uri("/users/1/friends").exchange()
+                .expectBody(String.class).isEqualTo(List.of(gson.toJson(second)).toString());
+        client.get().uri("/users/stats?domains=1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.users").isEqualTo(2)
+                .jsonPath("$.topEmailDomains[0].domain").isEqualTo("example.com");
+        client.get().uri("/users/stats?domains=0").exchange().expectStatus().isBadRequest();
+
+        byte[] export = client.get().uri("/users/export").exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        client.post().uri("/users/import").contentType(MediaType.APPLICATION_OCTET_STREAM).bodyValue(export)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.read").isEqualTo(2)
+                .jsonPath("$.unchanged").isEqualTo(2);
+        client.post().uri("/users/import").contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(Arrays.copyOf(export, export.length - 1)).exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void events_shouldStreamChangesAfterRequestedSequence() throws Exception {
+        long start = changeEventLog.lastSequence();
+        Film film = filmService.create(new Film(null, "Фильм", "Описание", LocalDate.of(2000, 1, 1), 100));
+        Film renamed = new Film(film.getId(), "Новое название", "Описание", LocalDate.of(2000, 1, 1), 100);
+        filmService.update(renamed);
+
+        List<ServerSentEvent<String>> events = client.get().uri("/events?after=" + start)
+                .accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                })
+                .getResponseBody()
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(List.of("film.created", "film.updated"),
+                List.of(events.get(0).event(), events.get(1).event()));
+        Assertions.assertEquals(String.valueOf(start + 2), events.get(1).id());
+        Assertions.assertEquals(gson.toJson(renamed), events.get(1).data());
+    }
+}
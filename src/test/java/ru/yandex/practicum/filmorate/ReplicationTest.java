@@ -0,0 +1,168 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ReplicationStatus;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.replication.Replication;
+
+import java.net.HttpURLConnection;
+import java.time.LocalDate;
+import java.util.List;
+
+class ReplicationTest {
+
+    private static ConfigurableApplicationContext leader;
+    private static ConfigurableApplicationContext follower;
+    private static String leaderUrl;
+    private static String followerUrl;
+    private static ObjectMapper objectMapper;
+
+    private final RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory() {
+        @Override
+        protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws java.io.IOException {
+            super.prepareConnection(connection, httpMethod);
+            connection.setInstanceFollowRedirects(false);
+        }
+    });
+
+    @BeforeAll
+    static void start() {
+        leader = new SpringApplicationBuilder(FilmorateApplication.class)
+                .properties("server.port=0", "filmorate.replication.role=leader")
+                .run();
+        leaderUrl = "http://localhost:" + port(leader);
+        objectMapper = leader.getBean(ObjectMapper.class);
+        follower = startFollower();
+        followerUrl = "http://localhost:" + port(follower);
+    }
+
+    @AfterAll
+    static void stop() {
+        follower.close();
+        leader.close();
+    }
+
+    @Test
+    void follower_shouldReadOwnWrites_whenSequenceIsSent() throws JsonProcessingException {
+        ResponseEntity<String> created = post(leaderUrl + "/films",
+                new Film(null, "Начало", "Сон во сне", LocalDate.of(2010, 7, 8), 148));
+        String sequence = created.getHeaders().getFirst(Replication.SEQUENCE_HEADER);
+        Assertions.assertNotNull(sequence);
+        Film film = read(created.getBody(), Film.class);
+
+        List<Film> films = read(get(followerUrl + "/films", sequence).getBody(),
+                new TypeReference<List<Film>>() {
+                });
+        Assertions.assertTrue(films.contains(film));
+    }
+
+    @Test
+    void follower_shouldReplicateLikesAndFriends() throws JsonProcessingException {
+        User first = read(post(leaderUrl + "/users",
+                new User(null, "first@example.com", "first", "Первый", LocalDate.of(1990, 1, 1))).getBody(), User.class);
+        User second = read(post(leaderUrl + "/users",
+                new User(null, "second@example.com", "second", "Второй", LocalDate.of(1991, 1, 1))).getBody(), User.class);
+        Film film = read(post(leaderUrl + "/films",
+                new Film(null, "Матрица", "Красная таблетка", LocalDate.of(1999, 3, 31), 136)).getBody(), Film.class);
+        restTemplate.put(leaderUrl + "/films/" + film.getId() + "/like/" + first.getId(), null);
+        String sequence = restTemplate.exchange(leaderUrl + "/users/" + first.getId() + "/friends/" + second.getId(),
+                HttpMethod.PUT, null, String.class).getHeaders().getFirst(Replication.SEQUENCE_HEADER);
+
+        List<User> friends = read(get(followerUrl + "/users/" + first.getId() + "/friends", sequence).getBody(),
+                new TypeReference<List<User>>() {
+                });
+        List<Film> popular = read(get(followerUrl + "/films/popular?count=1", sequence).getBody(),
+                new TypeReference<List<Film>>() {
+                });
+        Assertions.assertEquals(List.of(second), friends);
+        Assertions.assertEquals(List.of(film), popular);
+    }
+
+    @Test
+    void follower_shouldRedirectWritesToLeader() throws JsonProcessingException {
+        ResponseEntity<String> response = restTemplate.exchange(followerUrl + "/films?limit=5", HttpMethod.POST,
+                json(new Film(null, "Фильм", "Описание", LocalDate.of(2000, 1, 1), 100)), String.class);
+        Assertions.assertEquals(307, response.getStatusCodeValue());
+        Assertions.assertEquals(leaderUrl + "/films?limit=5", response.getHeaders().getFirst(HttpHeaders.LOCATION));
+    }
+
+    @Test
+    void restartedFollower_shouldCatchUpFromSnapshot() throws InterruptedException, JsonProcessingException {
+        for (int i = 0; i < 20; i++) {
+            post(leaderUrl + "/films", new Film(null, "Фильм " + i, "Описание", LocalDate.of(2000, 1, 1), 100));
+        }
+        ConfigurableApplicationContext restarted = startFollower();
+        try {
+            String url = "http://localhost:" + port(restarted) + "/replication/status";
+            ReplicationStatus status = null;
+            for (int attempt = 0; attempt < 100; attempt++) {
+                status = read(restTemplate.getForObject(url, String.class), ReplicationStatus.class);
+                if (status.getSnapshots() > 0 && status.getLagEvents() == 0) {
+                    break;
+                }
+                Thread.sleep(50);
+            }
+            String leaderFilms = restTemplate.getForObject(leaderUrl + "/films", String.class);
+            Assertions.assertEquals(1, status.getSnapshots());
+            Assertions.assertEquals(leaderFilms, get("http://localhost:" + port(restarted) + "/films",
+                    String.valueOf(status.getSequence())).getBody());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startFollower() {
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .properties("server.port=0", "filmorate.replication.role=follower",
+                        "filmorate.replication.leader-url=" + leaderUrl, "filmorate.replication.poll-wait=PT1S")
+                .run();
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private ResponseEntity<String> post(String url, Object body) throws JsonProcessingException {
+        return restTemplate.exchange(url, HttpMethod.POST, json(body), String.class);
+    }
+
+    private ResponseEntity<String> get(String url, String sequence) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(Replication.MIN_SEQUENCE_HEADER, sequence);
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        return response;
+    }
+
+    private static <T> T read(String json, Class<T> type) throws JsonProcessingException {
+        return objectMapper.readValue(json, type);
+    }
+
+    private static <T> T read(String json, TypeReference<T> type) throws JsonProcessingException {
+        return objectMapper.readValue(json, type);
+    }
+
+    private static HttpEntity<String> json(Object body) throws JsonProcessingException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(objectMapper.writeValueAsString(body), headers);
+    }
+}
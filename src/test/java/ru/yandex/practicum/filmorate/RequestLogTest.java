@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.env.MockEnvironment;
+import ru.yandex.practicum.filmorate.logging.RequestLog;
+
+class RequestLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLog.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void rates_shouldFallBackToDefaultPerEndpoint() {
+        RequestLog requestLog = new RequestLog(new MockEnvironment()
+                .withProperty("filmorate.logging.sample.default", "0.25")
+                .withProperty("filmorate.logging.sample.films.create", "0"));
+
+        Assertions.assertEquals(0.0, requestLog.rate(RequestLog.Endpoint.FILMS_CREATE));
+        Assertions.assertEquals(0.25, requestLog.rate(RequestLog.Endpoint.USERS_UPDATE));
+        Assertions.assertEquals(1.0, new RequestLog(new MockEnvironment()).rate(RequestLog.Endpoint.FILMS_BATCH));
+    }
+
+    @Test
+    void saved_shouldLogStructuredFieldsOnlyForSampledEndpoints() {
+        RequestLog requestLog = new RequestLog(new MockEnvironment()
+                .withProperty("filmorate.logging.sample.default", "1")
+                .withProperty("filmorate.logging.sample.users.create", "0"));
+
+        requestLog.saved(RequestLog.Endpoint.USERS_CREATE, 1, 1L);
+        requestLog.saved(RequestLog.Endpoint.FILMS_UPDATE, 7, 3L);
+        requestLog.batchSaved(RequestLog.Endpoint.FILMS_BATCH, 20);
+
+        Assertions.assertEquals(2, appender.list.size());
+        Assertions.assertEquals("Фильм обновлён: endpoint=films.update id=7 version=3",
+                appender.list.get(0).getFormattedMessage());
+        Assertions.assertEquals("Пакет фильмов добавлен: endpoint=films.batch count=20",
+                appender.list.get(1).getFormattedMessage());
+    }
+
+    @Test
+    void constructor_shouldRejectRateOutsideUnitInterval() {
+        MockEnvironment environment = new MockEnvironment().withProperty("filmorate.logging.sample.films.update", "2");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RequestLog(environment));
+    }
+}
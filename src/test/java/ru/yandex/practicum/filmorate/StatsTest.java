@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import ru.yandex.practicum.filmorate.model.DomainCount;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.HistogramBin;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserStats;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.sketch.CountMinSketch;
+import ru.yandex.practicum.filmorate.storage.sketch.LogLinearHistogram;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StatsTest {
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+
+    @AfterEach
+    void clear() {
+        filmService.clear();
+        userService.clear();
+    }
+
+    @Test
+    void histogram_shouldGivePercentilesAndForgetRemovedValues() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.add(value, 1);
+        }
+        histogram.add(5000, 1);
+        histogram.add(5000, -1);
+
+        LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(100, snapshot.count());
+        Assertions.assertEquals(50.5, snapshot.mean());
+        Assertions.assertEquals(50, snapshot.percentile(0.5));
+        Assertions.assertEquals(99, snapshot.percentile(0.99));
+        Assertions.assertEquals(30, snapshot.countBetween(30, 60));
+
+        histogram.add(5000, 1);
+        long p100 = histogram.snapshot().percentile(1.0);
+        Assertions.assertTrue(p100 <= 5000 && p100 > 5000 * 63 / 64, "p100 " + p100);
+    }
+
+    @Test
+    void countMinSketch_shouldNeverUndercount() {
+        CountMinSketch sketch = new CountMinSketch();
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add(CountMinSketch.hash("domain" + i + ".ru"), 1);
+        }
+        sketch.add(CountMinSketch.hash("Mail.ru"), 500);
+        sketch.add(CountMinSketch.hash("mail.ru"), -100);
+
+        long estimate = sketch.estimate(CountMinSketch.hash("mail.ru"));
+        Assertions.assertTrue(estimate >= 400 && estimate < 450, "estimate " + estimate);
+    }
+
+    @Test
+    void filmStats_shouldFollowCreatesAndUpdates() throws Exception {
+        Film first = filmService.create(new Film(null, "Первый", "Описание", LocalDate.of(1999, 5, 1), 95));
+        filmService.create(new Film(null, "Второй", "Описание", LocalDate.of(1999, 6, 1), 120));
+        filmService.create(new Film(null, "Третий", "Описание", LocalDate.of(2010, 1, 1), 400));
+        first.setReleaseDate(LocalDate.of(2010, 2, 1));
+        first.setDuration(25);
+        filmService.update(first);
+
+        FilmStats stats = get("/films/stats", FilmStats.class);
+
+        Assertions.assertEquals(3, stats.getFilms());
+        Assertions.assertEquals(new TreeMap<>(Map.of(1999, 1L, 2010, 2L)), stats.getByReleaseYear());
+        Assertions.assertEquals(120, stats.getDuration().getP50());
+        Assertions.assertEquals(new HistogramBin(0, 30L, 1), stats.getDuration().getHistogram().get(0));
+        Assertions.assertEquals(new HistogramBin(120, 150L, 1), stats.getDuration().getHistogram().get(4));
+        Assertions.assertEquals(new HistogramBin(270, null, 1), stats.getDuration().getHistogram().get(9));
+    }
+
+    @Test
+    void userStats_shouldRankDomainsAndFollowUpdates() throws Exception {
+        userService.create(new User(null, "a@mail.ru", "a", "А", LocalDate.of(1990, 1, 1)));
+        userService.create(new User(null, "b@Mail.ru", "b", "Б", LocalDate.of(1990, 2, 1)));
+        userService.create(new User(null, "c@yandex.ru", "c", "В", LocalDate.of(2000, 1, 1)));
+        User moved = userService.create(new User(null, "d@gmail.com", "d", "Г", LocalDate.of(2000, 1, 1)));
+        moved.setEmail("d@yandex.ru");
+        userService.update(moved);
+
+        UserStats stats = get("/users/stats?domains=2", UserStats.class);
+
+        Assertions.assertEquals(4, stats.getUsers());
+        Assertions.assertEquals(new TreeMap<>(Map.of(1990, 2L, 2000, 2L)), stats.getByBirthYear());
+        Assertions.assertEquals(List.of(new DomainCount("mail.ru", 2), new DomainCount("yandex.ru", 2)),
+                stats.getTopEmailDomains());
+        HttpClientErrorException rejected = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.getForObject(url("/users/stats?domains=0"), String.class));
+        Assertions.assertEquals(400, rejected.getRawStatusCode());
+    }
+
+    private <T> T get(String path, Class<T> type) throws Exception {
+        return objectMapper.readValue(restTemplate.getForObject(url(path), String.class), type);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+}
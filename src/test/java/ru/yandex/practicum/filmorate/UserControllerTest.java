@@ -12,13 +12,18 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -39,6 +44,8 @@ class UserControllerTest {
     private int port;
     @Autowired
     private UserController userController;
+    @Autowired
+    private FilmService filmService;
 
     @BeforeEach
     void initRequest() throws URISyntaxException {
@@ -52,6 +59,7 @@ class UserControllerTest {
     @AfterEach
     void clear() {
         userController.deleteHelper();
+        filmService.clear();
     }
 
 
@@ -87,6 +95,7 @@ class UserControllerTest {
         restTemplate.postForEntity(uri, request, String.class);
         User updatedUser = new User(1, "ex@example.ru", "logo", "newName", LocalDate.of(2021, 12, 12));
         restTemplate.put(String.valueOf(uri), updatedUser, User.class);
+        updatedUser.setVersion(2L);
         ResponseEntity<String> result = restTemplate.getForEntity(uri, String.class);
         Assertions.assertEquals(List.of(gson.toJson(updatedUser)).toString(), result.getBody());
     }
@@ -131,6 +140,7 @@ class UserControllerTest {
         User user = new User(1, "example@example.com", "testLogin", "Vasya", LocalDate.of(2020, 12, 12));
         HttpEntity<User> request = new HttpEntity<>(user, headers);
         ResponseEntity<String> result = restTemplate.postForEntity(uri, request, String.class);
+        user.setVersion(1L);
         Assertions.assertEquals(gson.toJson(user), result.getBody());
     }
 
@@ -139,9 +149,152 @@ class UserControllerTest {
         User user = new User(1, "example@example.com", "testLogin", "Vasya", LocalDate.of(2020, 12, 12));
         HttpEntity<User> request = new HttpEntity<>(user, headers);
         restTemplate.postForEntity(uri, request, String.class);
+        user.setVersion(1L);
         ResponseEntity<String> result = restTemplate.getForEntity(uri, String.class);
         Assertions.assertEquals(List.of(gson.toJson(user)).toString(), result.getBody());
     }
 
-}
+    @Test
+    void getCommonFriends_shouldReturnUsersWhoAreFriendsOfBoth() {
+        List<String> users = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            User user = new User(i, "user" + i + "@example.com", "login" + i, "Имя" + i, LocalDate.of(1990, 1, 1));
+            restTemplate.postForEntity(uri, new HttpEntity<>(user, headers), String.class);
+            user.setVersion(1L);
+            users.add(gson.toJson(user));
+        }
+        restTemplate.put(uri + "1/friends/3", null);
+        restTemplate.put(uri + "1/friends/4", null);
+        restTemplate.put(uri + "2/friends/4", null);
+        restTemplate.put(uri + "2/friends/3", null);
+        restTemplate.delete(uri + "2/friends/3");
+
+        ResponseEntity<String> common = restTemplate.getForEntity(uri + "1/friends/common/2", String.class);
+        ResponseEntity<String> friends = restTemplate.getForEntity(uri + "4/friends", String.class);
+
+        Assertions.assertEquals("[" + users.get(3) + "]", common.getBody());
+        Assertions.assertEquals("[" + users.get(0) + "," + users.get(1) + "]", friends.getBody());
+    }
+
+    @Test
+    void postBatch_shouldCreateUsersFromNdjson() {
+        User first = new User(null, "first@example.com", "first", "Первый", LocalDate.of(1990, 1, 1));
+        User second = new User(null, "second@example.com", "second", null, LocalDate.of(1991, 1, 1));
+        HttpHeaders ndjsonHeaders = new HttpHeaders();
+        ndjsonHeaders.set("Content-Type", "application/x-ndjson;charset=UTF-8");
+        restTemplate.postForEntity(uri + "batch", new HttpEntity<>(gson.toJson(first) + "\n" + gson.toJson(second)
+                + "\n", ndjsonHeaders), String.class);
+        first.setId(1);
+        second.setId(2);
+        second.setName("second");
+        first.setVersion(1L);
+        second.setVersion(1L);
+        ResponseEntity<String> result = restTemplate.getForEntity(uri, String.class);
+        Assertions.assertEquals("[" + gson.toJson(first) + "," + gson.toJson(second) + "]", result.getBody());
+    }
+
+    @Test
+    void postRequest_shouldReturnCode409_whenEmailOrLoginIsTaken() {
+        User user = new User(null, "taken@example.com", "taken", "Вася", LocalDate.of(1990, 1, 1));
+        User sameEmail = new User(null, "TAKEN@example.com", "other", "Петя", LocalDate.of(1990, 1, 1));
+        User sameLogin = new User(null, "other@example.com", "taken", "Петя", LocalDate.of(1990, 1, 1));
+        restTemplate.postForEntity(uri, new HttpEntity<>(user, headers), String.class);
+
+        for (User duplicate : List.of(sameEmail, sameLogin)) {
+            HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                    () -> restTemplate.postForEntity(uri, new HttpEntity<>(duplicate, headers), String.class));
+            Assertions.assertEquals(409, e.getRawStatusCode());
+        }
+        Assertions.assertEquals(200, restTemplate.postForEntity(uri,
+                new HttpEntity<>(new User(null, "free@example.com", "free", "Петя", LocalDate.of(1990, 1, 1)), headers),
+                String.class).getStatusCodeValue());
+    }
+
+    @Test
+    void putRequest_shouldReleaseOldEmailAndRejectTakenOne() {
+        User first = new User(null, "first@example.com", "first", "Первый", LocalDate.of(1990, 1, 1));
+        User second = new User(null, "second@example.com", "second", "Второй", LocalDate.of(1990, 1, 1));
+        restTemplate.postForEntity(uri, new HttpEntity<>(first, headers), String.class);
+        restTemplate.postForEntity(uri, new HttpEntity<>(second, headers), String.class);
+
+        HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.put(uri, new User(2, "first@example.com", "second", "Второй",
+                        LocalDate.of(1990, 1, 1))));
+        Assertions.assertEquals(409, e.getRawStatusCode());
 
+        restTemplate.put(uri, new User(1, "renamed@example.com", "first", "Первый", LocalDate.of(1990, 1, 1)));
+        restTemplate.put(uri, new User(2, "first@example.com", "second", "Второй", LocalDate.of(1990, 1, 1)));
+        ResponseEntity<String> result = restTemplate.getForEntity(uri + "?after=1", String.class);
+        User renamed = new User(2, "first@example.com", "second", "Второй", LocalDate.of(1990, 1, 1));
+        renamed.setVersion(2L);
+        Assertions.assertEquals("[" + gson.toJson(renamed) + "]", result.getBody());
+    }
+
+    @Test
+    void postRequest_shouldReturnCode409_whenIdIsTaken() {
+        User first = new User(1, "first@example.com", "first", "Первый", LocalDate.of(1990, 1, 1));
+        User replacement = new User(1, "second@example.com", "second", "Второй", LocalDate.of(1990, 1, 1));
+        restTemplate.postForEntity(uri, new HttpEntity<>(first, headers), String.class);
+
+        HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForEntity(uri, new HttpEntity<>(replacement, headers), String.class));
+        Assertions.assertEquals(409, e.getRawStatusCode());
+        HttpClientErrorException batch = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForEntity(uri + "batch", new HttpEntity<>(List.of(replacement), headers),
+                        String.class));
+        Assertions.assertEquals("[{\"index\":0,\"message\":\"Пользователь с ID 1 уже существует\"}]",
+                batch.getResponseBodyAsString(StandardCharsets.UTF_8));
+
+        replacement.setId(null);
+        Assertions.assertEquals(200, restTemplate.postForEntity(uri, new HttpEntity<>(replacement, headers),
+                String.class).getStatusCodeValue());
+        HttpClientErrorException taken = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForEntity(uri, new HttpEntity<>(new User(null, "first@example.com", "other",
+                        "Другой", LocalDate.of(1990, 1, 1)), headers), String.class));
+        Assertions.assertEquals(409, taken.getRawStatusCode());
+        first.setVersion(1L);
+        replacement.setId(2);
+        replacement.setVersion(1L);
+        Assertions.assertEquals("[" + gson.toJson(first) + "," + gson.toJson(replacement) + "]",
+                restTemplate.getForEntity(uri, String.class).getBody());
+    }
+
+    @Test
+    void postBatch_shouldReportDuplicatesWithinBatch() {
+        User first = new User(null, "same@example.com", "first", "Первый", LocalDate.of(1990, 1, 1));
+        User second = new User(null, "same@example.com", "second", "Второй", LocalDate.of(1990, 1, 1));
+        HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForEntity(uri + "batch", new HttpEntity<>(List.of(first, second), headers),
+                        String.class));
+        Assertions.assertEquals(400, e.getRawStatusCode());
+        Assertions.assertEquals("[{\"index\":1,\"message\":\"Пользователь с email same@example.com уже существует\"}]",
+                e.getResponseBodyAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getRecommendations_shouldSuggestFilmsLikedBySimilarUsers() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            restTemplate.postForEntity(uri, new HttpEntity<>(new User(null, "user" + i + "@example.com", "login" + i,
+                    "Имя" + i, LocalDate.of(1990, 1, 1)), headers), String.class);
+        }
+        List<Film> films = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            films.add(filmService.create(new Film(null, "Фильм " + i, "Описание", LocalDate.of(2000, 1, i), 100)));
+        }
+        filmService.addLike(1, 1);
+        filmService.addLike(2, 1);
+        filmService.addLike(1, 2);
+        filmService.addLike(2, 2);
+        filmService.addLike(3, 2);
+        filmService.addLike(4, 3);
+
+        ResponseEntity<String> result = restTemplate.getForEntity(uri + "1/recommendations", String.class);
+        Assertions.assertEquals("[" + gson.toJson(films.get(2)) + "]", result.getBody());
+        Assertions.assertEquals("[]", restTemplate.getForEntity(uri + "2/recommendations", String.class).getBody());
+
+        HttpClientErrorException e = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.getForEntity(uri + "9/recommendations", String.class));
+        Assertions.assertEquals(404, e.getRawStatusCode());
+    }
+
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+class ValidatorsTest {
+
+    private static ValidatorFactory factory;
+    private static Validator beanValidator;
+    private final FilmValidator filmValidator = new FilmValidator();
+    private final UserValidator userValidator = new UserValidator();
+
+    @BeforeAll
+    static void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        beanValidator = factory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    void userValidator_shouldRejectEverythingBeanValidationRejects() {
+        List<String> emails = List.of("user@example.com", "first.last+tag@mail.example.org", "", " ", "user",
+                "@example.com", "user@", "user@example", "user@@example.com", "user@example.c", "user@example.toolongtld",
+                "user name@example.com", ".user@example.com", "user.@example.com", "us..er@example.com",
+                "user@-example.com", "user@example-.com", "user@exa_mple.com", "юзер@example.com", "user@example.рф",
+                "user@example..com", "user@.example.com", "user@example.com.", "user@examplecom", "a".repeat(65) + "@example.com");
+        List<String> logins = List.of("login", "", " ", "with space", "tab\tlogin", "логин");
+        for (String email : emails) {
+            for (String login : logins) {
+                User user = new User(null, email, login, null, LocalDate.of(1990, 1, 1));
+                boolean beanValid = beanValidator.validate(user).isEmpty();
+                boolean precompiledValid = userValidator.validate(user) == null;
+                if (!beanValid) {
+                    Assertions.assertFalse(precompiledValid, "Пропущен некорректный пользователь: " + email + " / " + login);
+                }
+            }
+        }
+        Assertions.assertNull(userValidator.validate(
+                new User(null, "user@example.com", "login", null, LocalDate.of(1990, 1, 1))));
+    }
+
+    @Test
+    void userValidator_shouldLeaveStorageLimitsToStorage() {
+        Assertions.assertNull(userValidator.validate(
+                new User(null, "user@example.com", "login", null, LocalDate.parse("-10000000-01-01"))));
+    }
+
+    @Test
+    void filmValidator_shouldRejectEverythingBeanValidationRejects() {
+        List<String> texts = List.of("Фильм", "", " ", "\t", "x".repeat(200), "x".repeat(201));
+        List<LocalDate> dates = List.of(LocalDate.of(2000, 1, 1), LocalDate.of(1895, 12, 28),
+                LocalDate.of(1895, 12, 27), LocalDate.now().plusDays(1));
+        List<Integer> durations = List.of(1, 0, -1);
+        for (String text : texts) {
+            for (LocalDate date : dates) {
+                for (Integer duration : durations) {
+                    Film film = new Film(null, text, text, date, duration);
+                    if (!beanValidator.validate(film).isEmpty()) {
+                        Assertions.assertNotNull(filmValidator.validate(film), "Пропущен некорректный фильм: " + film);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void validateAll_shouldReportEveryBrokenRule() {
+        Film film = new Film(null, " ", "x".repeat(201), LocalDate.of(1800, 1, 1), 0);
+        Assertions.assertEquals(List.of(
+                "Ошибка при создании фильма: название фильма не может быть пустым",
+                "Ошибка при создании фильма: максимальный размер описания фильма - 200 символов",
+                "Дата релиза — не раньше 28 декабря 1895 года",
+                "Продолжительность фильма должна быть положительной"), filmValidator.validateAll(film));
+
+        User user = new User(null, "не email", "с пробелом", null, null);
+        Assertions.assertEquals(List.of(
+                "Ошибка при создании пользователя: Email пользователя не соответствует нужному формату",
+                "Ошибка при создании пользователя: логин пользователя не может содержать пробелы",
+                "Ошибка при создании пользователя: дата рождения пользователя не может быть пустой"),
+                userValidator.validateAll(user));
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import ru.yandex.practicum.filmorate.limit.AdaptiveConcurrencyLimit;
+import ru.yandex.practicum.filmorate.limit.TokenBuckets;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"filmorate.limits.rate=1", "filmorate.limits.burst=2", "filmorate.limits.api-keys=importer"})
+class WriteLimitsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void tokenBuckets_shouldRefillAtRateAndKeepClientsApart() {
+        AtomicLong now = new AtomicLong();
+        TokenBuckets buckets = new TokenBuckets(10, 2, 100, now::get);
+
+        Assertions.assertEquals(0, buckets.tryAcquire("a"));
+        Assertions.assertEquals(0, buckets.tryAcquire("a"));
+        Assertions.assertEquals(100, buckets.tryAcquire("a"));
+        Assertions.assertEquals(0, buckets.tryAcquire("b"));
+        now.addAndGet(50);
+        Assertions.assertEquals(50, buckets.tryAcquire("a"));
+        now.addAndGet(50);
+        Assertions.assertEquals(0, buckets.tryAcquire("a"));
+        Assertions.assertEquals(100, buckets.tryAcquire("a"));
+    }
+
+    @Test
+    void tokenBuckets_shouldEvictIdleClientsAndShareOverflowBucket() {
+        AtomicLong now = new AtomicLong();
+        TokenBuckets buckets = new TokenBuckets(10, 1, 2, now::get);
+        buckets.tryAcquire("a");
+        buckets.tryAcquire("b");
+
+        Assertions.assertEquals(0, buckets.tryAcquire("c"));
+        Assertions.assertTrue(buckets.tryAcquire("d") > 0);
+        Assertions.assertEquals(2, buckets.clients());
+        now.addAndGet(100);
+        Assertions.assertEquals(2, buckets.evictIdle());
+        Assertions.assertEquals(0, buckets.clients());
+    }
+
+    @Test
+    void concurrencyLimit_shouldShrinkOnSlowRequestsAndGrowOnFastOnes() {
+        long target = TimeUnit.MILLISECONDS.toNanos(100);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, target);
+
+        Assertions.assertTrue(limit.tryAcquire());
+        Assertions.assertTrue(limit.tryAcquire());
+        Assertions.assertFalse(limit.tryAcquire());
+        limit.release(target * 2);
+        Assertions.assertEquals(1.8, limit.limit(), 1e-9);
+        limit.release(target * 2);
+        Assertions.assertEquals(1.8, limit.limit(), 1e-9, "one cut per target interval");
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(limit.tryAcquire());
+            limit.release(target / 2);
+        }
+        Assertions.assertEquals(4, limit.limit(), 1e-9);
+    }
+
+    @Test
+    void postRequest_shouldReturnCode429_whenClientExceedsRate() {
+        RestTemplate restTemplate = new RestTemplate();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Api-Key", "importer");
+        HttpEntity<String> film = new HttpEntity<>("{\"name\":\"Фильм\",\"description\":\"Описание\","
+                + "\"releaseDate\":\"2000-01-01\",\"duration\":90}", headers);
+        String url = "http://localhost:" + port + "/films";
+
+        restTemplate.exchange(url, HttpMethod.POST, film, String.class);
+        restTemplate.exchange(url, HttpMethod.POST, film, String.class);
+        HttpClientErrorException rejected = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.exchange(url, HttpMethod.POST, film, String.class));
+        Assertions.assertEquals(429, rejected.getRawStatusCode());
+        Assertions.assertEquals("1", rejected.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertThat(rejected.getResponseBodyAsString(StandardCharsets.UTF_8)).contains("\"status\":429", "\"path\":\"/films\"");
+        Assertions.assertEquals(200, restTemplate.getForEntity(url, String.class).getStatusCodeValue());
+    }
+
+    @Test
+    void postRequest_shouldLimitByAddress_whenApiKeyIsNotListed() {
+        RestTemplate restTemplate = new RestTemplate();
+        String url = "http://localhost:" + port + "/users";
+        for (int i = 1; i <= 2; i++) {
+            Assertions.assertEquals(200, restTemplate.exchange(url, HttpMethod.POST, user(i), String.class)
+                    .getStatusCodeValue());
+        }
+        HttpClientErrorException rejected = Assertions.assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.exchange(url, HttpMethod.POST, user(3), String.class));
+        Assertions.assertEquals(429, rejected.getRawStatusCode());
+    }
+
+    private static HttpEntity<String> user(int i) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Api-Key", "random-" + i);
+        return new HttpEntity<>("{\"email\":\"user" + i + "@example.com\",\"login\":\"user" + i
+                + "\",\"birthday\":\"1990-01-01\"}", headers);
+    }
+}